@@ -1,6 +1,8 @@
 package com.wjduquette.george;
 
 import com.wjduquette.george.graphics.SpriteSet;
+import com.wjduquette.george.jfr.GameLoopPhaseEvent;
+import com.wjduquette.george.jfr.RegionLoadEvent;
 import com.wjduquette.george.model.*;
 import com.wjduquette.george.ecs.*;
 import com.wjduquette.george.regions.BuglandRegion;
@@ -16,6 +18,9 @@ import javafx.scene.layout.StackPane;
 import javafx.stage.Stage;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.function.Supplier;
 
 public class App extends Application {
@@ -29,6 +34,12 @@ public class App extends Application {
     private static final int LOOP_MSECS = 50;
     private static final int DEBUGGER_REFRESH_TICKS = 10;
 
+    // The region in which the game begins.
+    private static final String START_REGION = "overworld";
+
+    // The number of threads used to load regions in the background.
+    private static final int REGION_LOADER_THREADS = 2;
+
 
     //-------------------------------------------------------------------------
     // Instance Variables
@@ -52,8 +63,21 @@ public class App extends Application {
     // The items lookup table
     private Items items;
 
-    // A lookup table for regions by name
-    private final Map<String,Region> regions = new HashMap<>();
+    // The resident and hibernated regions
+    private final RegionCache regions = new RegionCache();
+
+    // Futures for regions being loaded, by name.  A region's future
+    // completes, on the FX thread, when the region is loaded and resident.
+    private final Map<String,CompletableFuture<Region>> pending =
+        new HashMap<>();
+
+    // The worker threads on which regions are loaded in the background.
+    private final ExecutorService regionLoader =
+        Executors.newFixedThreadPool(REGION_LOADER_THREADS, runnable -> {
+            var thread = new Thread(runnable, "region-loader");
+            thread.setDaemon(true);
+            return thread;
+        });
 
     // The map we're currently wandering about on.
     private Region region = null;
@@ -78,26 +102,68 @@ public class App extends Application {
 
     @Override
     public void start(Stage stage) {
-        // FIRST, Set up global resources
+        // FIRST, show the stage with a loading panel.
+        var splash = new LoadingPanel(this, "Loading...");
+        hull.getChildren().add(splash);
+
+        Scene scene = new Scene(hull, 800, 600);
+        stage.setMinWidth(800);
+        stage.setMinHeight(600);
+        stage.setTitle("George's Saga!");
+        stage.setScene(scene);
+        stage.show();
+        stage.setOnCloseRequest(evt -> System.exit(0));
+
+        // NEXT, load the global resources and the starting region
+        // concurrently.  The region can refer to the items.
         populateRegionFactories();
-        items = new Items(getClass(), "assets/items.keydata");
 
-        // NEXT, Create the player(s)
-        george = makeGeorge();
+        var bootstrap = new Bootstrap();
+        var spriteSets = Sprites.FILES.stream()
+            .map(file -> bootstrap.load(() -> new SpriteSet(App.class, file)))
+            .toList();
+        var itemsTask = bootstrap.load(this::loadItems);
+        var regionTask = bootstrap.load(itemsTask,
+            () -> buildRegion(START_REGION));
+
+        bootstrap.setOnProgress((done, total) ->
+            splash.setText("Loading... " + done + " of " + total));
+
+        bootstrap.whenDone().whenComplete(($, ex) -> {
+            if (ex != null) {
+                ex.printStackTrace();
+                System.exit(1);
+            }
+
+            hull.getChildren().remove(splash);
+            Sprites.install(spriteSets.stream()
+                .map(CompletableFuture::join)
+                .toList());
+            startGame(regionTask.join());
+        });
+    }
 
-        // TEMP
+    // Begins the game in the starting region, once the assets are loaded.
+    private void startGame(Region startRegion) {
+        // FIRST, Create the player(s)
+        george = makeGeorge();
 
-//        region = getRegion("test");
-//        region = getRegion("floobham");
-        region = getRegion("overworld");
+        // NEXT, make the starting region resident and current.
+        Sprites.all().add(startRegion.getTerrainTileSet());
+        regions.put(START_REGION, startRegion);
+        region = getRegion(START_REGION);
 
         // Put George in the region
         Cell origin = region.point("origin").orElse(new Cell(10, 10));
         region.entities().add(george.cell(origin));
+        preloadNeighbors(region);
 
         // NEXT, initialize the GUI
         viewer = new GameView(this);
         viewer.addEventHandler(UserInputEvent.USER_INPUT, this::onUserInput);
+        if (getParameters().getRaw().contains("-layered")) {
+            viewer.setRenderMode(GameView.RenderMode.LAYERED);
+        }
         viewer.setRegion(region);
 
         logPane = new LogPane(this);
@@ -105,20 +171,17 @@ public class App extends Application {
         hull.getChildren().add(viewer);
         hull.getChildren().add(logPane);
 
-        // NEXT, configure the GUI
-        Scene scene = new Scene(hull, 800, 600);
-        stage.setMinWidth(800);
-        stage.setMinHeight(600);
-        stage.setTitle("George's Saga!");
-        stage.setScene(scene);
-        stage.show();
-        stage.setOnCloseRequest(evt -> System.exit(0));
-
         Platform.runLater(looper::run);
     }
 
+    // Loads the items table.  The TrainingRun calls this directly.
+    Items loadItems() {
+        items = new Items(getClass(), "assets/items.keydata");
+        return items;
+    }
+
     // Creates George as of the beginning of the game.
-    private Entity makeGeorge() {
+    Entity makeGeorge() {
         Player player = new Player("George");
         player.setHitPoints(10, 10);
         var inv = new Inventory(Player.INVENTORY_SIZE);
@@ -137,7 +200,7 @@ public class App extends Application {
             .mobile("george") // Key
             .put(inv)
             .put(equip)
-            .sprite(Sprites.ALL.getInfo("mobile.george"));
+            .sprite(Sprites.all().getInfo("mobile.george"));
     }
 
     //-------------------------------------------------------------------------
@@ -206,35 +269,35 @@ public class App extends Application {
             try {
                 // FIRST, handle any interrupts.
                 if (!interrupts.isEmpty()) {
-                    handleInterrupts(userInput);
+                    phase("interrupts", () -> handleInterrupts(userInput));
                     userInput = null;
                     return;
                 }
 
                 // Do planning, based on current input. (Can throw interrupt.)
                 if (userInput != null) {
-                    Planner.doPlanning(userInput, region);
+                    phase("planning", () -> Planner.doPlanning(userInput, region));
                 }
 
                 // Animate any visual effects
-                Animator.doAnimate(gameTick, region);
+                phase("animation", () -> Animator.doAnimate(gameTick, region));
 
                 // Execute any plans.  (Can throw interrupt.)
-                Executor.doMovement(region);
+                phase("movement", () -> Executor.doMovement(region));
 
                 // Monitor interactions and tripwires.  Could throw interrupt.
-                Monitor.analyze(region);
+                phase("monitor", () -> Monitor.analyze(region));
             } catch (InterruptException ex) {
                 interrupts.add(ex.get());
             }
 
             // FINALLY, repaint.
             userInput = null;
-            viewer.repaint();
+            phase("repaint", viewer::update);
 
             gameTick++;
             if (gameTick % DEBUGGER_REFRESH_TICKS == 0 && debugger != null) {
-                debugger.refresh();
+                phase("debugger", debugger::refresh);
             }
         } catch (Exception ex) {
             looper.stop();
@@ -242,6 +305,18 @@ public class App extends Application {
         }
     }
 
+    // Executes one phase of the game loop, recording it as a JFR event.
+    // Exceptions, including InterruptExceptions, propagate to the caller.
+    private void phase(String name, Runnable body) {
+        var event = GameLoopPhaseEvent.begin(name, gameTick);
+
+        try {
+            body.run();
+        } finally {
+            event.commit();
+        }
+    }
+
     //-------------------------------------------------------------------------
     // Movers
 
@@ -267,7 +342,8 @@ public class App extends Application {
         }
     }
 
-    // Transfer the party to the region:name indicated by the exit.
+    // Transfer the party to the region:name indicated by the exit.  If the
+    // region is still loading, wait for it with a loading indicator.
     private void gotoRegion(Exit exit) {
         System.out.println("Go To region: " + exit);
         var regionName = exit.region();
@@ -278,14 +354,42 @@ public class App extends Application {
             System.out.println("Unknown region: " + regionName);
             return;
         }
-        Region newRegion = getRegion(regionName);
 
+        var future = loadRegion(regionName);
+
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            enterRegion(regionName, future.join(), pointName);
+            return;
+        }
+
+        // NEXT, wait for it.  The future completes on the FX thread.
+        var panel = new LoadingPanel(this, "Loading...");
+        showPanel(panel);
+
+        future.whenComplete((newRegion, ex) -> {
+            if (ex != null) {
+                System.out.println("Failed to load region " + regionName +
+                    ": " + ex.getMessage());
+            } else {
+                enterRegion(regionName, newRegion, pointName);
+            }
+            panel.close();
+        });
+    }
+
+    // Transfer the party to the named point in the newly loaded region.
+    private void enterRegion(
+        String regionName,
+        Region newRegion,
+        String pointName)
+    {
         Optional<Entity> point = newRegion.query(Point.class)
             .filter(e -> e.point().name().equals(pointName))
             .findFirst();
 
         if (point.isEmpty()) {
-            System.out.println("No such point in " + regionName + ": " + pointName);
+            System.out.println("No such point in " + regionName + ": " +
+                pointName);
             return;
         }
 
@@ -303,9 +407,12 @@ public class App extends Application {
         // Position the player.
         player.cell(point.get().cell());
 
-        // NEXT, Make the new region the current region.
+        // NEXT, Make the new region the current region, and start loading
+        // the regions it leads to.
         region = newRegion;
+        regions.visit(regionName, newRegion);
         viewer.setRegion(region);
+        preloadNeighbors(region);
     }
 
     /**
@@ -356,7 +463,7 @@ public class App extends Application {
     //-------------------------------------------------------------------------
     // Region Definitions
 
-    private void populateRegionFactories() {
+    void populateRegionFactories() {
         regionFactories.put("test",
             () -> new DataDrivenRegion(this, getClass(),
                 "assets/regions/test/test.region")
@@ -375,15 +482,68 @@ public class App extends Application {
         );
     }
 
+    // Gets the named region, loading it on this thread if it isn't
+    // resident, and makes it the current region in the cache.
     private Region getRegion(String name) {
-        Region region = regions.get(name);
+        var region = regions.get(name);
 
         if (region == null) {
-            region = regionFactories.get(name).get();
+            region = buildRegion(name);
+            Sprites.all().add(region.getTerrainTileSet());
             regions.put(name, region);
-            Sprites.ALL.add(region.getTerrainTileSet());
         }
 
+        regions.visit(name, region);
+        return region;
+    }
+
+    // Gets the future for the named region, starting to load it in the
+    // background if it is neither resident nor already loading.  The
+    // region is built on a worker thread; its tiles are added to the sprite
+    // set and it is made resident on the FX thread, on which the future
+    // then completes.
+    private CompletableFuture<Region> loadRegion(String name) {
+        var region = regions.get(name);
+
+        if (region != null) {
+            return CompletableFuture.completedFuture(region);
+        }
+
+        return pending.computeIfAbsent(name, key ->
+            CompletableFuture.supplyAsync(() -> buildRegion(key), regionLoader)
+                .whenCompleteAsync((loaded, ex) -> {
+                    pending.remove(key);
+
+                    if (loaded != null) {
+                        Sprites.all().add(loaded.getTerrainTileSet());
+                        regions.put(key, loaded);
+                    }
+                }, Platform::runLater));
+    }
+
+    // Starts loading the regions reachable through the region's exits.
+    private void preloadNeighbors(Region region) {
+        region.query(Exit.class)
+            .map(e -> e.exit().region())
+            .filter(Objects::nonNull)
+            .filter(regionFactories::containsKey)
+            .distinct()
+            .forEach(this::loadRegion);
+    }
+
+    // Builds the named region from its factory.  This can be called on any
+    // thread.
+    Region buildRegion(String name) {
+        var event = new RegionLoadEvent();
+        event.begin();
+
+        var region = regionFactories.get(name).get();
+        regions.hibernatedState(name).ifPresent(region::rehydrate);
+
+        event.region = name;
+        event.entityCount = region.entities().ids().size();
+        event.commit();
+
         return region;
     }
 
@@ -399,14 +559,20 @@ public class App extends Application {
     }
 
     public SpriteSet sprites() {
-        return Sprites.ALL;
+        return Sprites.all();
     }
 
     //-------------------------------------------------------------------------
     // Global Utilities
 
     public void log(String message) {
-        logPane.log(message);
+        // There's no log pane until the game starts, e.g., in the
+        // TrainingRun.
+        if (logPane != null) {
+            logPane.log(message);
+        } else {
+            System.out.println(message);
+        }
     }
 
     /**
@@ -426,6 +592,6 @@ public class App extends Application {
     // Main
 
     public static void main(String[] args) {
-        launch();
+        launch(args);
     }
 }
@@ -0,0 +1,94 @@
+package com.wjduquette.george;
+
+import javafx.application.Platform;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Bootstrap loads the application's startup assets concurrently on a pool
+ * of worker threads, so that startup takes about as long as the slowest
+ * asset rather than the sum of them all.  Each asset is loaded by a task;
+ * progress is reported on the FX thread as tasks complete.
+ */
+class Bootstrap {
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The worker threads
+    private final ExecutorService pool = Executors.newFixedThreadPool(
+        Runtime.getRuntime().availableProcessors(), runnable -> {
+            var thread = new Thread(runnable, "bootstrap");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+    // The tasks
+    private final List<CompletableFuture<?>> tasks = new ArrayList<>();
+
+    // The number of tasks completed, accessed on the FX thread.
+    private int completed = 0;
+
+    // Called on the FX thread with the number completed and the total.
+    private BiConsumer<Integer,Integer> onProgress = (done, total) -> {};
+
+    //-------------------------------------------------------------------------
+    // Public API
+
+    /**
+     * Sets the function called on the FX thread as each task completes,
+     * with the number of completed tasks and the total number of tasks.
+     * @param onProgress The function
+     */
+    void setOnProgress(BiConsumer<Integer,Integer> onProgress) {
+        this.onProgress = onProgress;
+    }
+
+    /**
+     * Adds a task that loads an asset.
+     * @param loader The function that loads the asset
+     * @param <T> The asset type
+     * @return The asset's future
+     */
+    <T> CompletableFuture<T> load(Supplier<T> loader) {
+        return track(CompletableFuture.supplyAsync(loader, pool));
+    }
+
+    /**
+     * Adds a task that loads an asset once another asset it depends on
+     * has been loaded.
+     * @param after The other asset's future
+     * @param loader The function that loads the asset
+     * @param <T> The asset type
+     * @return The asset's future
+     */
+    <T> CompletableFuture<T> load(CompletableFuture<?> after, Supplier<T> loader) {
+        return track(after.thenApplyAsync($ -> loader.get(), pool));
+    }
+
+    /**
+     * Returns a future that completes on the FX thread when all tasks
+     * added so far are complete, and shuts down the worker threads.  It
+     * completes exceptionally if any task failed.
+     * @return The future
+     */
+    CompletableFuture<Void> whenDone() {
+        return CompletableFuture.allOf(tasks.toArray(CompletableFuture<?>[]::new))
+            .whenCompleteAsync(($, ex) -> pool.shutdown(), Platform::runLater);
+    }
+
+    //-------------------------------------------------------------------------
+    // Helpers
+
+    private <T> CompletableFuture<T> track(CompletableFuture<T> task) {
+        tasks.add(task);
+        task.whenCompleteAsync(($, ex) ->
+            onProgress.accept(++completed, tasks.size()), Platform::runLater);
+        return task;
+    }
+}
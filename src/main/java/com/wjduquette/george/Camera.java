@@ -0,0 +1,168 @@
+package com.wjduquette.george;
+
+import com.wjduquette.george.ecs.Loc;
+import com.wjduquette.george.model.Region;
+
+/**
+ * The Camera determines which part of the region GameView shows.  It
+ * follows a Loc, including its fractional offsets, so that the view
+ * scrolls smoothly, a pixel at a time, as the player's sprite slides from
+ * cell to cell.  The camera eases toward its target rather than jumping,
+ * except when the target is far away (e.g., on entering a region).
+ *
+ * <p>As it moves, the camera warms up the region's terrain cache by
+ * rendering the terrain chunks just ahead of it in the direction of
+ * travel, a few per update, so that they are ready before they scroll
+ * into view.</p>
+ */
+class Camera {
+    //-------------------------------------------------------------------------
+    // Constants
+
+    // The fraction of the remaining distance to the target covered on
+    // each update.
+    private static final double EASING = 0.5;
+
+    // If the target is more than this many cells away, the camera jumps
+    // to it.
+    private static final double SNAP_DISTANCE = 4.0;
+
+    // The maximum number of terrain chunks to prefetch on one update.
+    private static final int PREFETCH_BUDGET = 2;
+
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The row and column shown at the upper left of the view, in
+    // fractional cells.
+    private double row = 0.0;
+    private double col = 0.0;
+
+    // The direction of the camera's last movement, -1, 0, or 1 on each axis.
+    private int rowDir = 0;
+    private int colDir = 0;
+
+    // Whether the camera has been positioned since it was last reset.
+    private boolean placed = false;
+
+    //-------------------------------------------------------------------------
+    // Public API
+
+    /**
+     * Gets the row shown at the top of the view.
+     * @return The row, in fractional cells
+     */
+    double row() {
+        return row;
+    }
+
+    /**
+     * Gets the column shown at the left of the view.
+     * @return The column, in fractional cells
+     */
+    double col() {
+        return col;
+    }
+
+    /**
+     * Forgets the camera's position, so that the next call to follow()
+     * jumps directly to its target.
+     */
+    void reset() {
+        placed = false;
+        rowDir = 0;
+        colDir = 0;
+    }
+
+    /**
+     * Moves the camera toward the position that centers the Loc in a
+     * view of the given size.  The position is rounded to whole pixels,
+     * so that tiles are always drawn on pixel boundaries.
+     * @param region The region
+     * @param loc The location to follow
+     * @param viewWidth The view's width, in pixels
+     * @param viewHeight The view's height, in pixels
+     * @return true if the camera moved, and false otherwise.
+     */
+    boolean follow(Region region, Loc loc, double viewWidth, double viewHeight) {
+        var th = region.getTileHeight();
+        var tw = region.getTileWidth();
+
+        // FIRST, get the target position.  The Loc's cell is centered,
+        // as it was before the camera could scroll smoothly.
+        var targetRow = loc.cell().row() + loc.rowOffset()
+            - (int)(viewHeight / th) / 2;
+        var targetCol = loc.cell().col() + loc.colOffset()
+            - (int)(viewWidth / tw) / 2;
+
+        // NEXT, ease toward it, or jump if it's too far away or the
+        // camera has yet to be placed.
+        double newRow;
+        double newCol;
+
+        if (!placed ||
+            Math.abs(targetRow - row) > SNAP_DISTANCE ||
+            Math.abs(targetCol - col) > SNAP_DISTANCE)
+        {
+            newRow = targetRow;
+            newCol = targetCol;
+            placed = true;
+        } else {
+            newRow = row + EASING * (targetRow - row);
+            newCol = col + EASING * (targetCol - col);
+        }
+
+        // NEXT, snap to whole pixels.  Once within a pixel of the target,
+        // the camera simply arrives.
+        newRow = Math.round(newRow * th) / (double)th;
+        newCol = Math.round(newCol * tw) / (double)tw;
+
+        if (Math.abs(targetRow - newRow) * th < 1.0) {
+            newRow = targetRow;
+        }
+
+        if (Math.abs(targetCol - newCol) * tw < 1.0) {
+            newCol = targetCol;
+        }
+
+        if (newRow == row && newCol == col) {
+            // A stopped camera has no direction of travel to prefetch in.
+            rowDir = 0;
+            colDir = 0;
+            return false;
+        }
+
+        rowDir = (int)Math.signum(newRow - row);
+        colDir = (int)Math.signum(newCol - col);
+        row = newRow;
+        col = newCol;
+        return true;
+    }
+
+    /**
+     * Renders terrain chunks that lie just ahead of the view in the
+     * direction the camera last moved, up to a small budget per call.
+     * @param region The region
+     * @param viewWidth The view's width, in pixels
+     * @param viewHeight The view's height, in pixels
+     */
+    void prefetch(Region region, double viewWidth, double viewHeight) {
+        if (rowDir == 0 && colDir == 0) {
+            return;
+        }
+
+        var cache = region.terrainCache();
+        var size = cache.chunkSize();
+
+        // FIRST, shift the view's bounds a chunk in the direction of travel.
+        var rowMin = (int)Math.floor(row) + rowDir*size;
+        var colMin = (int)Math.floor(col) + colDir*size;
+        var rowMax = (int)Math.ceil(row + viewHeight / region.getTileHeight())
+            + rowDir*size;
+        var colMax = (int)Math.ceil(col + viewWidth / region.getTileWidth())
+            + colDir*size;
+
+        // NEXT, render the missing chunks in that area.
+        cache.prefetch(rowMin, colMin, rowMax, colMax, PREFETCH_BUDGET);
+    }
+}
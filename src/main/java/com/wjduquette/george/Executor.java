@@ -224,7 +224,7 @@ public class Executor {
         // FIRST, if there's a mobile blocking the cell, he can't enter.
         // TODO: need compare the blocker against the mover.  Is the blocker
         // trying to block?  Can the mover move around it?
-        if (region.query(Mobile.class).anyMatch(m -> m.isAt(cell))) {
+        if (region.findAt(cell, Mobile.class).isPresent()) {
             return false;
         }
 
@@ -1,6 +1,7 @@
 package com.wjduquette.george;
 
 import com.wjduquette.george.ecs.*;
+import com.wjduquette.george.jfr.RepaintEvent;
 import com.wjduquette.george.model.*;
 import com.wjduquette.george.widgets.GamePane;
 import com.wjduquette.george.widgets.UserInput;
@@ -17,11 +18,27 @@ import javafx.scene.paint.Color;
 import javafx.scene.text.Font;
 
 import java.util.*;
+import java.util.function.Predicate;
 
 public class GameView extends GamePane {
     //-------------------------------------------------------------------------
     // Statics
 
+    /**
+     * How the view renders the map.  In IMMEDIATE mode, the map and the
+     * HUD are painted on the view's canvas.  In LAYERED mode, the map is a
+     * retained scene graph (see MapLayers) beneath the canvas, and the
+     * canvas holds only the HUD, which is repainted only when it changes.
+     */
+    public enum RenderMode {
+        IMMEDIATE,
+        LAYERED
+    }
+
+    // The margin, in cells, around the rendered area within which
+    // entities are drawn.
+    private static final int VIEW_MARGIN = 1;
+
     private enum Button {
         MODE("button.normal"),
         POINTER("button.pointer"),
@@ -44,8 +61,11 @@ public class GameView extends GamePane {
     //-------------------------------------------------------------------------
     // Instance Variables
 
-    private int rowOffset = 0;
-    private int colOffset = 0;
+    // The camera, and the row and column it shows at the upper left of
+    // the view, in fractional cells.
+    private final Camera camera = new Camera();
+    private double rowOffset = 0;
+    private double colOffset = 0;
 
     private int rowMin = 0;
     private int rowMax = 0;
@@ -58,6 +78,59 @@ public class GameView extends GamePane {
     // Which selectable buttons are selected.
     private final Set<Button> selected = new HashSet<>();
 
+    // The retained map layers, in LAYERED mode, or null.
+    private MapLayers layers = null;
+
+    // Dirty-region tracking.  If fullRepaint is set, the next update
+    // repaints the entire view.  Otherwise, only the dirtyCells are
+    // repainted, and if there are none the update does nothing.
+    private boolean fullRepaint = true;
+    private final Set<Cell> dirtyCells = new HashSet<>();
+
+    // The Locs at which entities were last drawn, so that we can repaint
+    // the cells they used to occupy.
+    private final Map<Long,Loc> drawnLocs = new HashMap<>();
+
+    // Marks an entity's old and new cells dirty when it changes.
+    private final EntityTable.Listener regionListener = new EntityTable.Listener() {
+        @Override public void entityAdded(Entity entity) {
+            markDirty(entity);
+        }
+
+        @Override public void entityRemoved(Entity entity) {
+            markDirty(entity);
+            drawnLocs.remove(entity.id());
+        }
+
+        @Override public void entityChanged(Entity entity, Class<?> component) {
+            markDirty(entity);
+        }
+    };
+
+    // In LAYERED mode, invalidates the HUD when the player's appearance
+    // changes.  Movement alone doesn't change the HUD.
+    private final EntityTable.Listener hudListener = new EntityTable.Listener() {
+        @Override public void entityAdded(Entity entity) {
+            playerChanged(entity);
+        }
+
+        @Override public void entityRemoved(Entity entity) {
+            playerChanged(entity);
+        }
+
+        @Override public void entityChanged(Entity entity, Class<?> component) {
+            if (component != Loc.class) {
+                playerChanged(entity);
+            }
+        }
+
+        private void playerChanged(Entity entity) {
+            if (entity.player() != null) {
+                invalidate();
+            }
+        }
+    };
+
     //-------------------------------------------------------------------------
     // Constructor
 
@@ -109,8 +182,40 @@ public class GameView extends GamePane {
     //-------------------------------------------------------------------------
     // Public Methods
 
+    /**
+     * Sets the render mode.  This should be done before the region is set.
+     * @param mode The mode
+     */
+    public void setRenderMode(RenderMode mode) {
+        if (mode == RenderMode.LAYERED && layers == null) {
+            layers = new MapLayers(sprites());
+            getChildren().add(0, layers);
+        } else if (mode == RenderMode.IMMEDIATE && layers != null) {
+            getChildren().remove(layers);
+            layers = null;
+        }
+
+        if (region != null) {
+            setRegion(region);
+        }
+    }
+
     public void setRegion(Region map) {
+        if (region != null) {
+            region.entities().removeListener(regionListener);
+            region.entities().removeListener(hudListener);
+        }
+
         this.region = map;
+        camera.reset();
+
+        if (layers != null) {
+            layers.setRegion(region);
+            region.entities().addListener(hudListener);
+        } else {
+            region.entities().addListener(regionListener);
+        }
+        invalidate();
 
         Platform.runLater(this::repaint);
     }
@@ -119,57 +224,212 @@ public class GameView extends GamePane {
         return region;
     }
 
+    /**
+     * Forces the next update to repaint the entire view.
+     */
+    public void invalidate() {
+        fullRepaint = true;
+    }
+
+    /**
+     * Updates the view for the current game tick.  If the view has
+     * scrolled or been invalidated, repaints everything; otherwise
+     * repaints only those cells whose content has changed since the last
+     * update, and does nothing at all if there are none.
+     */
+    public void update() {
+        var scrolled =
+            updateBounds(region.query(Player.class).findFirst().orElseThrow());
+
+        // In LAYERED mode scrolling is just a translation of the layers;
+        // the HUD is repainted only when invalidated.
+        if (layers != null && !fullRepaint) {
+            updateLayers();
+            if (scrolled) {
+                markViewSeen();
+            }
+            return;
+        }
+
+        if (scrolled) {
+            fullRepaint = true;
+        }
+
+        if (fullRepaint) {
+            repaint();
+        } else if (!dirtyCells.isEmpty()) {
+            var event = new RepaintEvent();
+            event.begin();
+            event.region = region.prefix();
+
+            try {
+                paintDirtyCells();
+            } finally {
+                event.commit();
+            }
+        }
+    }
+
     protected void onRepaint() {
-        // Don't recompute bounds if the player is executing a plan.
-        // TODO: Not sure if this is want I want.  At the very least, I need
-        // recompute if the player is outside the current bounds.
+        var event = new RepaintEvent();
+        event.begin();
+        event.region = region.prefix();
+
+        try {
+            if (layers != null) {
+                paintHud();
+            } else {
+                paintRegion();
+            }
+        } finally {
+            event.commit();
+        }
+    }
+
+    // Paints the region and the controls.
+    private void paintRegion() {
         Entity player = region.query(Player.class).findFirst().orElseThrow();
+        computeBounds();
 
-        if (player.find(Plan.class).isEmpty()) {
-            computeBounds(player.cell());
-        }
+        fullRepaint = false;
+        dirtyCells.clear();
+        drawnLocs.clear();
+
+        // FIRST, render the terrain from the pre-rendered chunks.
+        var origin = rc2xy(0, 0);
+        region.terrainCache().draw(gc(), rowMin, colMin, rowMax, colMax,
+            origin.getX(), origin.getY());
+        markViewSeen();
+
+        // NEXT, render the entities and the controls.
+        paintEntities(loc -> true);
+        drawStatusBox(0, player);
+        drawButtonBar();
+    }
 
-        // FIRST, render the terrain
+    // In LAYERED mode, brings the map layers up to date and repaints the
+    // HUD.  The canvas is otherwise left transparent, so that the layers
+    // show through.
+    private void paintHud() {
+        Entity player = region.query(Player.class).findFirst().orElseThrow();
+        computeBounds();
+        fullRepaint = false;
+
+        updateLayers();
+        markViewSeen();
+        drawStatusBox(0, player);
+        drawButtonBar();
+    }
+
+    // Brings the map layers up to date with the current bounds.
+    private void updateLayers() {
+        layers.update(rowOffset, colOffset, rowMin, colMin, rowMax, colMax);
+    }
+
+    // Marks all cells in the rendered area as seen.
+    // TODO: for now, mark a cell "seen" if it has appeared in
+    // the rendered area.
+    private void markViewSeen() {
         for (int r = rowMin; r < rowMax; r++) {
             for (int c = colMin; c < colMax; c++) {
-                TerrainTile tile = region.getTerrain(r, c);
-                drawImage(tile.image(), rc2xy(r, c));
-
-                // TODO: for now, mark a cell "seen" if it has appeared in
-                // the rendered area.
                 region.markSeen(r,c);
             }
         }
+    }
+
+    // Repaints just the dirty cells, clipping to them so that sprites
+    // that overlap neighboring cells don't overwrite them, and then
+    // redraws the controls.  The viewport is unchanged, so the cells
+    // have already been marked seen.
+    private void paintDirtyCells() {
+        Entity player = region.query(Player.class).findFirst().orElseThrow();
+        var tw = region.getTileWidth();
+        var th = region.getTileHeight();
+
+        gc().save();
+        gc().beginPath();
+        for (Cell cell : dirtyCells) {
+            if (inView(cell)) {
+                var xy = cell2xy(cell);
+                gc().rect(xy.getX(), xy.getY(), tw, th);
+            }
+        }
+        gc().clip();
+
+        for (Cell cell : dirtyCells) {
+            if (inView(cell)) {
+                var xy = cell2xy(cell);
+                gc().clearRect(xy.getX(), xy.getY(), tw, th);
+                region.terrainCache().drawCell(gc(), cell.row(), cell.col(),
+                    xy.getX(), xy.getY());
+            }
+        }
+
+        paintEntities(this::isDirty);
+        gc().restore();
+        dirtyCells.clear();
+
+        // NEXT, redraw the controls, which might overlap the dirty cells.
+        clearTargets();
+        drawStatusBox(0, player);
+        drawButtonBar();
+    }
 
-        // NEXT, render the features
-        for (Entity feature : region.query(Feature.class).toList()) {
-            drawImage(toImage(feature), entity2xy(feature));
+    // Paints the visible entities whose Locs match the predicate, layer by
+    // layer, remembering where each was drawn.
+    private void paintEntities(Predicate<Loc> filter) {
+        // FIRST, render the features
+        for (Entity feature : visible(Feature.class)) {
+            if (filter.test(feature.loc())) {
+                drawEntity(feature);
+            }
         }
 
         // NEXT, render the items
-        for (Entity stack : region.query(ItemStack.class).toList()) {
+        for (Entity stack : visible(ItemStack.class)) {
+            if (!filter.test(stack.loc())) {
+                continue;
+            }
+
             var inv = stack.inventory();
             for (int i = 0; i < inv.size(); i++) {
                 var item = inv.peek(i);
                 if (item != null) {
-                    drawImage(toImage(item), entity2xy(stack));
+                    drawSprite(toSprite(item), entity2xy(stack));
                 }
             }
+            drawnLocs.put(stack.id(), stack.loc());
         }
 
         // NEXT, render the mobiles on top
-        for (Entity mobile : region.query(Mobile.class).toList()) {
-            drawImage(toImage(mobile), entity2xy(mobile));
+        for (Entity mobile : visible(Mobile.class)) {
+            if (filter.test(mobile.loc())) {
+                drawEntity(mobile);
+            }
         }
 
         // NEXT, render other visual effects that have their own tiles.
-        for (Entity effect : region.query(VisualEffect.class, Sprite.class).toList()) {
-            drawImage(toImage(effect), entity2xy(effect));
+        for (Entity effect : visible(VisualEffect.class, Sprite.class)) {
+            if (filter.test(effect.loc())) {
+                drawEntity(effect);
+            }
         }
+    }
 
-        // NEXT, render the controls.
-        drawStatusBox(0, player);
-        drawButtonBar();
+    // Gets the entities with the given components that might be visible:
+    // those within the rendered area, plus a margin of one cell for
+    // sprites sliding in from outside it.
+    private List<Entity> visible(Class<?>... components) {
+        return region.queryWithin(
+            rowMin - VIEW_MARGIN, colMin - VIEW_MARGIN,
+            rowMax + VIEW_MARGIN, colMax + VIEW_MARGIN,
+            components).toList();
+    }
+
+    // Draws the entity's sprite at its Loc, and remembers the Loc.
+    private void drawEntity(Entity entity) {
+        drawSprite(toSprite(entity), entity2xy(entity));
+        drawnLocs.put(entity.id(), entity.loc());
     }
 
     //-------------------------------------------------------------------------
@@ -201,7 +461,7 @@ public class GameView extends GamePane {
             var fill = selected.contains(btn) ? Color.LIGHTGRAY : Color.GRAY;
 
             fill(fill, box);
-            drawImage(toImage(btn.sprite()), bx, by);
+            drawSprite(toSprite(btn.sprite()), bx, by);
 
             target(box, () -> buttonClick(btn));
         }
@@ -255,28 +515,99 @@ public class GameView extends GamePane {
             xLeft + border, yTop + border,
             boxWidth - 2 * border, boxHeight - 2 * border);
 
-        drawImage(toImage(player), xLeft + border, yTop + border);
+        drawSprite(toSprite(player), xLeft + border, yTop + border);
     }
 
 
     //-------------------------------------------------------------------------
     // Utilities
 
-    // Compute the row and column offsets so that the given cell is in the
-    // middle of the view pane
-    private void computeBounds(Cell cell) {
+    // Moves the camera to follow the player, and recomputes the bounds.
+    // Returns true if the view has scrolled or its bounds have changed.
+    // Only update() should move the camera; painting only computes the
+    // bounds.
+    private boolean updateBounds(Entity player) {
+        var oldRowMax = rowMax;
+        var oldColMax = colMax;
+
+        var moved = camera.follow(region, player.loc(), getWidth(), getHeight());
+
+        camera.prefetch(region, getWidth(), getHeight());
+        computeBounds();
+
+        return moved || rowMax != oldRowMax || colMax != oldColMax;
+    }
+
+    // Compute the offsets and the rendered area from the camera's position,
+    // and size the terrain cache to the view.
+    private void computeBounds() {
+        region.terrainCache().fitView(getWidth(), getHeight());
+
+        rowOffset = camera.row();
+        colOffset = camera.col();
+
         double heightInTiles = getHeight() / region.getTileHeight();
         double widthInTiles = getWidth() / region.getTileWidth();
-        rowOffset = cell.row() - (int) heightInTiles / 2;
-        colOffset = cell.col() - (int) widthInTiles / 2;
 
-        rowMax = Math.min(region.getHeight(), rowOffset + (int) heightInTiles + 1);
-        colMax = Math.min(region.getHeight(), colOffset + (int) widthInTiles + 1);
+        rowMax = Math.min(region.getHeight(),
+            (int)Math.ceil(rowOffset + heightInTiles));
+        colMax = Math.min(region.getWidth(),
+            (int)Math.ceil(colOffset + widthInTiles));
+
+        rowMin = Math.max(0, (int)Math.floor(rowOffset));
+        colMin = Math.max(0, (int)Math.floor(colOffset));
+    }
+
+
+    // Is the cell within the rendered area?
+    private boolean inView(Cell cell) {
+        return cell.row() >= rowMin && cell.row() < rowMax
+            && cell.col() >= colMin && cell.col() < colMax;
+    }
+
+    // Marks dirty the cells the entity was last drawn in and the cells it
+    // now occupies.
+    private void markDirty(Entity entity) {
+        markDirty(drawnLocs.get(entity.id()));
+        markDirty(entity.loc());
+    }
+
+    // Marks dirty the cells covered by a sprite drawn at the Loc.  A
+    // sprite with fractional offsets straddles up to four cells.
+    private void markDirty(Loc loc) {
+        if (loc == null) {
+            return;
+        }
 
-        rowMin = Math.max(0, rowOffset);
-        colMin = Math.max(0, colOffset);
+        var r = loc.cell().row() + loc.rowOffset();
+        var c = loc.cell().col() + loc.colOffset();
+
+        for (int i = (int)Math.floor(r); i <= (int)Math.ceil(r); i++) {
+            for (int j = (int)Math.floor(c); j <= (int)Math.ceil(c); j++) {
+                dirtyCells.add(new Cell(i, j));
+            }
+        }
     }
 
+    // Does a sprite drawn at the Loc overlap any dirty cell?
+    private boolean isDirty(Loc loc) {
+        if (loc == null) {
+            return false;
+        }
+
+        var r = loc.cell().row() + loc.rowOffset();
+        var c = loc.cell().col() + loc.colOffset();
+
+        for (int i = (int)Math.floor(r); i <= (int)Math.ceil(r); i++) {
+            for (int j = (int)Math.floor(c); j <= (int)Math.ceil(c); j++) {
+                if (dirtyCells.contains(new Cell(i, j))) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
 
     // Gets the pixel coordinates at which to draw the entity's tile.
     private Point2D entity2xy(Entity entity) {
@@ -305,8 +636,8 @@ public class GameView extends GamePane {
 
     // Converts a point in pixel coordinates to a logical cell.
     private Cell xy2rc(Point2D pt) {
-        int c = (int)(pt.getX() / region.getTileWidth()) + colOffset;
-        int r = (int)(pt.getY() / region.getTileHeight()) + rowOffset;
+        int c = (int)Math.floor(pt.getX() / region.getTileWidth() + colOffset);
+        int r = (int)Math.floor(pt.getY() / region.getTileHeight() + rowOffset);
 
         return new Cell(r,c);
     }
@@ -332,5 +663,8 @@ public class GameView extends GamePane {
             case MAP -> fireInputEvent(new UserInput.ShowMap());
             default -> region.log("TODO: " + btn);
         }
+
+        // The button bar has changed.
+        invalidate();
     }
 }
@@ -0,0 +1,286 @@
+package com.wjduquette.george;
+
+import com.wjduquette.george.ecs.*;
+import com.wjduquette.george.graphics.ImageInfo;
+import com.wjduquette.george.graphics.SpriteSet;
+import com.wjduquette.george.model.Cell;
+import com.wjduquette.george.model.Region;
+import javafx.scene.Group;
+import javafx.scene.Node;
+import javafx.scene.image.ImageView;
+import javafx.scene.layout.Pane;
+import javafx.scene.shape.Rectangle;
+
+import java.util.*;
+
+/**
+ * MapLayers is a retained-mode rendering of a region's map, used by
+ * GameView in its LAYERED render mode.  Rather than painting every cell
+ * on every frame, it keeps a scene graph with a separate layer for each
+ * kind of content:
+ *
+ * <ul>
+ *     <li>Terrain: one ImageView per pre-rendered terrain chunk, including
+ *         the static features.</li>
+ *     <li>Interactive features, items, mobiles, and effects: one node per
+ *         entity.</li>
+ * </ul>
+ *
+ * <p>The layers live in a single "world" group, in region pixel
+ * coordinates; scrolling the view is simply a translation of the world
+ * group.  Entity nodes are updated only when the entity changes, as
+ * reported by the region's EntityTable; JavaFX then redraws only what
+ * changed.  The HUD is drawn by GameView on its own canvas, above these
+ * layers.</p>
+ */
+class MapLayers extends Pane {
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The sprites
+    private final SpriteSet sprites;
+
+    // The world group, and the layers it contains, bottom to top.
+    private final Group world = new Group();
+    private final Group terrainLayer = new Group();
+    private final Group featureLayer = new Group();
+    private final Group itemLayer = new Group();
+    private final Group mobileLayer = new Group();
+    private final Group effectLayer = new Group();
+
+    // The region being displayed
+    private Region region = null;
+
+    // The terrain chunk views, by the cell at the chunk's upper-left corner.
+    private final Map<Cell, ImageView> chunkViews = new HashMap<>();
+
+    // The entity nodes, by entity ID.
+    private final Map<Long, Node> entityNodes = new HashMap<>();
+
+    // Entities whose nodes must be rebuilt, and entities whose nodes must
+    // merely be moved.
+    private final Set<Long> rebuild = new HashSet<>();
+    private final Set<Long> moved = new HashSet<>();
+
+    // Tracks changes to the region's entities.
+    private final EntityTable.Listener listener = new EntityTable.Listener() {
+        @Override public void entityAdded(Entity entity) {
+            rebuild.add(entity.id());
+        }
+
+        @Override public void entityRemoved(Entity entity) {
+            rebuild.add(entity.id());
+        }
+
+        @Override public void entityChanged(Entity entity, Class<?> component) {
+            if (component == Loc.class) {
+                moved.add(entity.id());
+            } else {
+                rebuild.add(entity.id());
+            }
+        }
+    };
+
+    //-------------------------------------------------------------------------
+    // Constructor
+
+    MapLayers(SpriteSet sprites) {
+        this.sprites = sprites;
+
+        world.getChildren().addAll(terrainLayer, featureLayer, itemLayer,
+            mobileLayer, effectLayer);
+        getChildren().add(world);
+
+        // Clip the world to the pane.
+        var clip = new Rectangle();
+        clip.widthProperty().bind(widthProperty());
+        clip.heightProperty().bind(heightProperty());
+        setClip(clip);
+    }
+
+    //-------------------------------------------------------------------------
+    // Public API
+
+    /**
+     * Displays the given region, discarding all retained content.
+     * @param newRegion The region
+     */
+    void setRegion(Region newRegion) {
+        if (region != null) {
+            region.entities().removeListener(listener);
+        }
+
+        region = newRegion;
+        chunkViews.clear();
+        entityNodes.clear();
+        rebuild.clear();
+        moved.clear();
+        terrainLayer.getChildren().clear();
+        featureLayer.getChildren().clear();
+        itemLayer.getChildren().clear();
+        mobileLayer.getChildren().clear();
+        effectLayer.getChildren().clear();
+
+        region.entities().addListener(listener);
+        region.entities().ids().forEach(rebuild::add);
+    }
+
+    /**
+     * Brings the layers up to date: scrolls the world to the given
+     * offsets, makes sure the terrain chunks for the rendered area are
+     * present, and updates the nodes of entities that have changed.
+     * @param rowOffset The row shown at the top of the pane
+     * @param colOffset The column shown at the left of the pane
+     * @param rowMin The first row in the rendered area
+     * @param colMin The first column in the rendered area
+     * @param rowMax One past the last row in the rendered area
+     * @param colMax One past the last column in the rendered area
+     */
+    void update(
+        double rowOffset, double colOffset,
+        int rowMin, int colMin,
+        int rowMax, int colMax)
+    {
+        var tw = region.getTileWidth();
+        var th = region.getTileHeight();
+
+        // FIRST, scroll.
+        world.setTranslateX(-colOffset * tw);
+        world.setTranslateY(-rowOffset * th);
+
+        // NEXT, the terrain.
+        updateTerrain(rowMin, colMin, rowMax, colMax);
+
+        // NEXT, the entities.
+        for (long id : rebuild) {
+            rebuildNode(id);
+        }
+
+        for (long id : moved) {
+            if (!rebuild.contains(id)) {
+                moveNode(id);
+            }
+        }
+
+        rebuild.clear();
+        moved.clear();
+    }
+
+    //-------------------------------------------------------------------------
+    // Terrain
+
+    // Adds views for the terrain chunks that cover the rendered area, and
+    // discards views for chunks more than a chunk away from it.
+    private void updateTerrain(int rowMin, int colMin, int rowMax, int colMax) {
+        var cache = region.terrainCache();
+        var size = cache.chunkSize();
+        var r0 = Math.floorDiv(Math.max(0, rowMin), size) * size;
+        var c0 = Math.floorDiv(Math.max(0, colMin), size) * size;
+
+        for (int r = r0; r < rowMax; r += size) {
+            for (int c = c0; c < colMax; c += size) {
+                var key = new Cell(r, c);
+
+                if (!chunkViews.containsKey(key)) {
+                    var view = new ImageView(cache.chunkAt(r, c));
+                    view.setX(c * region.getTileWidth());
+                    view.setY(r * region.getTileHeight());
+                    chunkViews.put(key, view);
+                    terrainLayer.getChildren().add(view);
+                }
+            }
+        }
+
+        chunkViews.entrySet().removeIf(e -> {
+            var cell = e.getKey();
+            var far = cell.row() + 2*size <= rowMin || cell.row() - size >= rowMax
+                || cell.col() + 2*size <= colMin || cell.col() - size >= colMax;
+
+            if (far) {
+                terrainLayer.getChildren().remove(e.getValue());
+            }
+            return far;
+        });
+    }
+
+    //-------------------------------------------------------------------------
+    // Entities
+
+    // Discards the entity's node, if any, and creates a new one if the
+    // entity is still present and drawable.
+    private void rebuildNode(long id) {
+        var old = entityNodes.remove(id);
+        if (old != null) {
+            ((Group)old.getParent()).getChildren().remove(old);
+        }
+
+        var entity = region.entities().get(id);
+        if (entity == null || entity.loc() == null) {
+            return;
+        }
+
+        Group layer;
+        Node node;
+
+        if (entity.feature() != null && entity.sprite() != null) {
+            layer = featureLayer;
+            node = spriteView(entity.sprite());
+        } else if (entity.itemStack() != null) {
+            layer = itemLayer;
+            node = stackNode(entity);
+        } else if (entity.mobile() != null && entity.sprite() != null) {
+            layer = mobileLayer;
+            node = spriteView(entity.sprite());
+        } else if (entity.find(VisualEffect.class).isPresent() &&
+            entity.sprite() != null)
+        {
+            layer = effectLayer;
+            node = spriteView(entity.sprite());
+        } else {
+            return;
+        }
+
+        entityNodes.put(id, node);
+        layer.getChildren().add(node);
+        place(node, entity.loc());
+    }
+
+    // Moves the entity's node to the entity's current Loc.
+    private void moveNode(long id) {
+        var node = entityNodes.get(id);
+        var entity = region.entities().get(id);
+
+        if (node != null && entity != null && entity.loc() != null) {
+            place(node, entity.loc());
+        }
+    }
+
+    // Positions the node at the Loc, in world coordinates.
+    private void place(Node node, Loc loc) {
+        node.setLayoutX((loc.cell().col() + loc.colOffset()) * region.getTileWidth());
+        node.setLayoutY((loc.cell().row() + loc.rowOffset()) * region.getTileHeight());
+    }
+
+    // Makes a view of the sprite, sharing its sheet image.
+    private ImageView spriteView(Sprite sprite) {
+        ImageInfo info = sprites.get(sprite.symbol());
+        var view = new ImageView(info.sheet());
+        view.setViewport(info.bounds());
+        return view;
+    }
+
+    // Makes a node showing the items in the stack, one on top of another.
+    private Node stackNode(Entity stack) {
+        var group = new Group();
+        var inv = stack.inventory();
+
+        for (int i = 0; i < inv.size(); i++) {
+            var item = inv.peek(i);
+            if (item != null) {
+                group.getChildren().add(spriteView(item.sprite()));
+            }
+        }
+
+        return group;
+    }
+}
@@ -3,22 +3,26 @@ package com.wjduquette.george;
 import com.wjduquette.george.ecs.Entity;
 import com.wjduquette.george.ecs.Plan;
 import com.wjduquette.george.ecs.Player;
-import com.wjduquette.george.ecs.Tripwire;
 import com.wjduquette.george.model.Region;
 import com.wjduquette.george.model.Trigger;
 
 /**
  * The Monitor system, which watches for TripWires and other interesting things.
+ * Only the tripwires armed by a player's movement are checked; see
+ * TriggerIndex.
  */
 public class Monitor {
     public static void analyze(Region region) {
-        var tripwires = region.query(Tripwire.class).toList();
+        var index = region.triggers();
+        var tripwires = index.takeArmed();
 
         for (var trigger : tripwires) {
             // A tripwire can throw an InterruptException.
             for (var player : region.query(Player.class).toList()) {
-                // Mustn't interrupt a transition.
-                if (!player.isTransitionInProgress()) {
+                // Mustn't interrupt a transition; check again later.
+                if (player.isTransitionInProgress()) {
+                    index.arm(trigger);
+                } else if (trigger.tripwire() != null) {
                     doTripwire(region, player, trigger);
                 }
             }
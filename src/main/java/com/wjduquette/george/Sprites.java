@@ -2,19 +2,51 @@ package com.wjduquette.george;
 
 import com.wjduquette.george.graphics.SpriteSet;
 
+import java.util.List;
+
 /**
- * This is a singleton containing all of the standard sprites.
+ * This is a singleton containing all of the standard sprites.  The
+ * sprite sets are loaded concurrently at startup (see Bootstrap) and then
+ * installed.
  */
 public class Sprites {
     private Sprites() {} // Not instantiable.
 
-    public final static SpriteSet ALL;
+    /** The standard sprite set resources, relative to App. */
+    public static final List<String> FILES = List.of(
+        "assets/sprites/mobiles.sprite",
+        "assets/sprites/Features.sprite",
+        "assets/sprites/Buttons.sprite",
+        "assets/sprites/Items.sprite",
+        "assets/sprites/Equip.sprite"
+    );
+
+    // All of the standard sprites, once installed.
+    private static SpriteSet all = null;
+
+    /**
+     * Gets the sprite set containing all of the standard sprites.
+     * @return The sprite set
+     * @throws IllegalStateException if the sprites have not been installed.
+     */
+    public static SpriteSet all() {
+        if (all == null) {
+            throw new IllegalStateException("Sprites have not been installed");
+        }
+        return all;
+    }
+
+    /**
+     * Installs the standard sprite sets, loaded from FILES, in order.
+     * @param sets The loaded sets
+     */
+    public static void install(List<SpriteSet> sets) {
+        var result = sets.get(0);
+
+        for (int i = 1; i < sets.size(); i++) {
+            result.add(sets.get(i));
+        }
 
-    static {
-        ALL = new SpriteSet(App.class, "assets/sprites/mobiles.sprite");
-        ALL.add(new SpriteSet(App.class, "assets/sprites/Features.sprite"));
-        ALL.add(new SpriteSet(App.class, "assets/sprites/Buttons.sprite"));
-        ALL.add(new SpriteSet(App.class, "assets/sprites/Items.sprite"));
-        ALL.add(new SpriteSet(App.class, "assets/sprites/Equip.sprite"));
+        all = result;
     }
 }
@@ -111,6 +111,7 @@ public class Stevedore {
         }
 
         if (stack.inventory().add(item) != -1) {
+            stack.put(stack.inventory()); // Notify the region of the change
             region.log("Dropped " + item.label().text());
             return true;
         } else {
@@ -229,6 +230,7 @@ public class Stevedore {
                 region.entities().remove(stack.id());
             }
         } else {
+            stack.put(inv); // Notify the region of the change
             region.log("You didn't have room for everything.");
         }
     }
@@ -0,0 +1,63 @@
+package com.wjduquette.george;
+
+import com.wjduquette.george.graphics.SpriteSet;
+import com.wjduquette.george.model.Cell;
+import com.wjduquette.george.widgets.UserInput;
+
+import java.util.List;
+
+/**
+ * A headless training run for building the application's class-data
+ * sharing archive (see the "cds" profile in pom.xml).  It loads the
+ * startup assets and each region through the game's own loaders, i.e.,
+ * App's region factories, and runs the planning and monitoring systems
+ * on each, so that the JVM can record the classes the game uses.  It
+ * needs the JavaFX libraries for images, but does not start the JavaFX
+ * toolkit.
+ */
+public class TrainingRun {
+    private TrainingRun() {} // Not instantiable
+
+    // The regions to exercise, by name.
+    private static final List<String> REGIONS =
+        List.of("test", "overworld", "floobham", "bugland");
+
+    public static void main(String[] args) {
+        // FIRST, the global assets, as loaded by App.start().
+        Sprites.install(Sprites.FILES.stream()
+            .map(file -> new SpriteSet(App.class, file))
+            .toList());
+
+        var app = new App();
+        app.loadItems();
+        app.populateRegionFactories();
+
+        // NEXT, each region, as loaded when the player enters it.
+        for (var name : REGIONS) {
+            var region = app.buildRegion(name);
+            Sprites.all().add(region.getTerrainTileSet());
+
+            // Put George in the region, and have him plan a walk to the
+            // first reachable cell nearby.
+            var origin = region.point("origin").orElse(new Cell(10, 10));
+            var george = app.makeGeorge().cell(origin);
+            region.entities().add(george);
+
+            origin.getAdjacent().stream()
+                .flatMap(cell -> cell.getAdjacent().stream())
+                .filter(cell -> !region.findPassableRoute(george, cell).isEmpty())
+                .findFirst()
+                .ifPresent(cell ->
+                    Planner.doPlanning(new UserInput.MoveTo(cell), region));
+            Monitor.analyze(region);
+
+            // Hibernate and restore it, as the region cache does.
+            region.rehydrate(region.hibernate());
+
+            System.out.println("Trained on " + name + ": " +
+                region.entities().ids().size() + " entities");
+        }
+
+        System.exit(0);
+    }
+}
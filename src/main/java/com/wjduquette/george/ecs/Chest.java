@@ -2,10 +2,15 @@ package com.wjduquette.george.ecs;
 
 import com.wjduquette.george.model.Opening;
 
+import java.io.Serial;
+
 /**
  * A chest feature on the map.
  */
 public class Chest implements Component {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     public static final int INVENTORY_SIZE = 16;
 
     //-------------------------------------------------------------------------
@@ -76,9 +81,9 @@ public class Chest implements Component {
      */
     public Label label() {
         if (isClosed()) {
-            return new Label("Chest");
+            return Label.of("Chest");
         } else {
-            return new Label("Open chest");
+            return Label.of("Open chest");
         }
     }
 
@@ -89,9 +94,9 @@ public class Chest implements Component {
      */
     public Sprite sprite() {
         if (isClosed()) {
-            return new Sprite(closedSprite);
+            return Sprite.of(closedSprite);
         } else {
-            return new Sprite(openSprite);
+            return Sprite.of(openSprite);
         }
     }
 
@@ -1,6 +1,9 @@
 package com.wjduquette.george.ecs;
 
+import java.io.Serializable;
+
 /**
- * A component class for the ECS.
+ * A component class for the ECS.  Components are serializable, so that
+ * a region's entities can be hibernated.
  */
-public interface Component { }
+public interface Component extends Serializable { }
@@ -0,0 +1,59 @@
+package com.wjduquette.george.ecs;
+
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * A canonicalizing cache for immutable components.  Many entities carry
+ * identical component values, e.g., the Label, Terrain, and Sprite of
+ * every wall feature in a region; sharing one instance of each value
+ * saves heap.
+ *
+ * <p>Only components that are immutable and have value equality, i.e.,
+ * records of immutable values, may be shared.  The cache holds its values
+ * weakly: a value is dropped once no entity refers to it, e.g., when the
+ * regions that used it have been hibernated, so that free-text labels
+ * and the like do not accumulate for the life of the process.</p>
+ */
+public final class Components {
+    private Components() {} // Not instantiable
+
+    //-------------------------------------------------------------------------
+    // Static Variables
+
+    // The shared values.  Each entry's value refers to its own key,
+    // weakly, so that the entry can be collected.
+    private static final Map<Component,WeakReference<Component>> cache =
+        new WeakHashMap<>();
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /**
+     * Returns the canonical instance of the component's value.
+     * @param component The component
+     * @param <T> The component type
+     * @return The shared instance
+     */
+    @SuppressWarnings("unchecked")
+    public static synchronized <T extends Component> T share(T component) {
+        var ref = cache.get(component);
+        var shared = ref != null ? ref.get() : null;
+
+        if (shared != null) {
+            return (T)shared;
+        }
+
+        cache.put(component, new WeakReference<>(component));
+        return component;
+    }
+
+    /**
+     * Gets the number of distinct component values shared so far.
+     * @return The count
+     */
+    public static synchronized int size() {
+        return cache.size();
+    }
+}
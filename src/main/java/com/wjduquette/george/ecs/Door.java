@@ -2,6 +2,7 @@ package com.wjduquette.george.ecs;
 
 import com.wjduquette.george.model.Opening;
 import com.wjduquette.george.model.TerrainType;
+import com.wjduquette.george.util.Symbols;
 
 /**
  * A Door.  A Door can be open or closed, and has a named sprite for each
@@ -11,21 +12,43 @@ import com.wjduquette.george.model.TerrainType;
  * TODO: We will add an "unlockCondition" to some doors.
  * @param state The door's state, CLOSED or OPEN
  * @param closedTerrain The door's terrain type, when closed.
- * @param closedSprite The name of the sprite to display when closed.
- * @param openSprite The name of the sprite to display when open.
+ * @param closedSprite The symbol ID of the sprite to display when closed.
+ * @param openSprite The symbol ID of the sprite to display when open.
  */
 public record Door(
     Opening state,
     TerrainType closedTerrain,
-    String closedSprite,
-    String openSprite
+    int closedSprite,
+    int openSprite
 ) implements Component {
+    // The labels for closed and open doors.
+    private static final Label CLOSED_LABEL = Label.of("closed door");
+    private static final Label OPEN_LABEL = Label.of("open door");
+
+    /**
+     * Creates a door given its sprite names.
+     * @param state The door's state, CLOSED or OPEN
+     * @param closedTerrain The door's terrain type, when closed.
+     * @param closedSprite The name of the sprite to display when closed.
+     * @param openSprite The name of the sprite to display when open.
+     */
+    public Door(
+        Opening state,
+        TerrainType closedTerrain,
+        String closedSprite,
+        String openSprite
+    ) {
+        this(state, closedTerrain,
+            Symbols.intern(closedSprite), Symbols.intern(openSprite));
+    }
+
     /**
      * Returns a door that's open, all else held equal.
      * @return The modified door.
      */
     public Door open() {
-        return new Door(Opening.OPEN, closedTerrain, closedSprite, openSprite);
+        return Components.share(
+            new Door(Opening.OPEN, closedTerrain, closedSprite, openSprite));
     }
 
     /**
@@ -33,7 +56,8 @@ public record Door(
      * @return The modified door.
      */
     public Door close() {
-        return new Door(Opening.CLOSED, closedTerrain, closedSprite, openSprite);
+        return Components.share(
+            new Door(Opening.CLOSED, closedTerrain, closedSprite, openSprite));
     }
 
     /**
@@ -59,9 +83,9 @@ public record Door(
      */
     public Terrain terrain() {
         if (isClosed()) {
-            return new Terrain(closedTerrain);
+            return Terrain.of(closedTerrain);
         } else {
-            return new Terrain(TerrainType.NONE);
+            return Terrain.of(TerrainType.NONE);
         }
     }
 
@@ -72,9 +96,9 @@ public record Door(
      */
     public Label label() {
         if (isClosed()) {
-            return new Label("closed door");
+            return CLOSED_LABEL;
         } else {
-            return new Label("open door");
+            return OPEN_LABEL;
         }
     }
 
@@ -85,9 +109,9 @@ public record Door(
      */
     public Sprite sprite() {
         if (isClosed()) {
-            return new Sprite(closedSprite);
+            return Sprite.of(closedSprite);
         } else {
-            return new Sprite(openSprite);
+            return Sprite.of(openSprite);
         }
     }
 }
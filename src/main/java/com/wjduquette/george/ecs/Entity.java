@@ -4,27 +4,34 @@ import com.wjduquette.george.graphics.ImageInfo;
 import com.wjduquette.george.model.*;
 import com.wjduquette.george.util.TypeMap;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * An Entity is an entity in a World.  It contains multiple components of
  * various types; the components determine what kind of entity it is.
  */
-public class Entity {
+public class Entity implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     //-------------------------------------------------------------------------
     // Static API
 
-    // The counter used to assign IDs
-    private static long nextId = 1;
+    // The counter used to assign IDs.  Regions may be loaded on background
+    // threads, so this must be atomic.
+    private static final AtomicLong nextId = new AtomicLong(1);
 
     /**
      * Gets the "next ID".  This is for use when saving the game state.
      * @return the "next ID".
      */
     public static long getNextId() {
-        return nextId;
+        return nextId.get();
     }
 
     /**
@@ -33,7 +40,7 @@ public class Entity {
      * @param value The ID for the next created entity
      */
     public static void setNextId(long value) {
-        nextId = value;
+        nextId.set(value);
     }
 
     /**
@@ -65,6 +72,10 @@ public class Entity {
     // The TypeMap containing the components
     private final TypeMap components;
 
+    // The EntityTable that contains the entity, if any.  The table is
+    // notified when components are added or removed.
+    private transient EntityTable table = null;
+
     //-------------------------------------------------------------------------
     // Constructor
 
@@ -73,7 +84,7 @@ public class Entity {
      * is for use during normal execution.
      */
     public Entity() {
-        this(Entity.nextId++);
+        this(Entity.nextId.getAndIncrement());
     }
 
     /**
@@ -94,7 +105,7 @@ public class Entity {
      * @param other The other entity
      */
     public Entity(Entity other) {
-        this.id = Entity.nextId++;
+        this.id = Entity.nextId.getAndIncrement();
         this.components = other.components;
     }
 
@@ -135,6 +146,7 @@ public class Entity {
      */
     public <T extends Component> Entity put(T component) {
         components.put(component);
+        changed(component.getClass());
         return this;
     }
 
@@ -144,6 +156,7 @@ public class Entity {
      */
     public void remove(Class<? extends Component> cls) {
         components.remove(cls);
+        changed(cls);
     }
 
     /**
@@ -160,6 +173,31 @@ public class Entity {
                 "Attempt to remove un-owned component: " + component);
         }
         components.remove(component.getClass());
+        changed(component.getClass());
+    }
+
+    // Notifies the owning table, if any, that a component has changed.
+    private void changed(Class<?> cls) {
+        if (table != null) {
+            table.entityChanged(this, cls);
+        }
+    }
+
+    /**
+     * Gets the table that contains this entity, if any.
+     * @return The table, or null
+     */
+    EntityTable table() {
+        return table;
+    }
+
+    /**
+     * Sets the table that contains this entity.  This is for use by
+     * EntityTable.
+     * @param table The table, or null
+     */
+    void setTable(EntityTable table) {
+        this.table = table;
     }
 
     /**
@@ -258,20 +296,20 @@ public class Entity {
     // Others just add the component given the arguments.
 
     public Entity tagAsArmor() { return put(new Armor()); }
-    public Entity tagAsFeature() { return put(new Feature()); }
+    public Entity tagAsFeature() { return put(Components.share(new Feature())); }
     public Entity tagAsItemStack() { return put(new ItemStack()); }
     public Entity tagAsWeapon() { return put(new Weapon()); }
     public Entity player(Player player) { return put(player).label(player.name()); }
     public Entity exit(String region, String point) { return put(new Exit(region, point)); }
     public Entity item(String key, Items.Type type) { return put(new Item(key, type)); }
-    public Entity label(String text) { return put(new Label(text)); }
+    public Entity label(String text) { return put(Label.of(text)); }
     public Entity mannikin(String key) { return put(new Mannikin(key)); }
     public Entity mobile(String key) { return put(new Mobile(key)); }
     public Entity point(String name) { return put(new Point(name)); }
     public Entity sign(String text) { put(new Sign(text)); return this; }
-    public Entity sprite(String name) { return put(new Sprite(name)); }
-    public Entity sprite(ImageInfo info) { return put(new Sprite(info.name())); }
-    public Entity terrain(TerrainType type) { return put(new Terrain(type)); }
+    public Entity sprite(String name) { return put(Sprite.of(name)); }
+    public Entity sprite(ImageInfo info) { return put(Sprite.of(info.name())); }
+    public Entity terrain(TerrainType type) { return put(Terrain.of(type)); }
     public Entity tripwire(Trigger trigger, Step step) { return put(new Tripwire(trigger, step)); }
 
     /**
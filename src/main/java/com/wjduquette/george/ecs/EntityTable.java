@@ -3,6 +3,7 @@ package com.wjduquette.george.ecs;
 import com.wjduquette.george.model.Cell;
 
 import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
 import java.util.stream.Stream;
 
 /**
@@ -16,14 +17,59 @@ import java.util.stream.Stream;
  *
  * <p>It bugs me that I'm using a Map rather than an array: we step over
  * entities in no particular order.  Possibly it shouldn't bug be.</p>
+ *
+ * <p>Clients can register a {@link Listener} to be told when entities are
+ * added to or removed from the table, and when an entity in the table
+ * gains, replaces, or loses a component.</p>
+ *
+ * <p>The table also keeps a spatial index of the entities that have a
+ * {@link Loc}, by cell, so that {@link #findAt} and {@link #queryWithin}
+ * need not scan every entity in the table.</p>
  */
 public class EntityTable {
+    //-------------------------------------------------------------------------
+    // Listener
+
+    /**
+     * A listener for changes to the table's content.  All methods have
+     * empty defaults, so clients need override only those they care about.
+     */
+    public interface Listener {
+        /**
+         * Called after an entity is added to the table.
+         * @param entity The entity
+         */
+        default void entityAdded(Entity entity) {}
+
+        /**
+         * Called after an entity is removed from the table.
+         * @param entity The entity
+         */
+        default void entityRemoved(Entity entity) {}
+
+        /**
+         * Called after a component of the given class is put into or
+         * removed from an entity in the table.
+         * @param entity The entity
+         * @param component The component class
+         */
+        default void entityChanged(Entity entity, Class<?> component) {}
+    }
+
     //-------------------------------------------------------------------------
     // Instance Variables
 
     // The entities in the world
     private final Map<Long,Entity> entities = new HashMap<>();
 
+    // The spatial index: the entities with a Loc, by cell, and the cell
+    // under which each is indexed.
+    private final Map<Cell,List<Entity>> byCell = new HashMap<>();
+    private final Map<Long,Cell> indexedCell = new HashMap<>();
+
+    // The registered listeners
+    private final List<Listener> listeners = new CopyOnWriteArrayList<>();
+
     //-------------------------------------------------------------------------
     // Constructor
 
@@ -38,7 +84,14 @@ public class EntityTable {
      * Remove all data from the table, resetting the ID counter.
      */
     public void clear() {
+        var removed = new ArrayList<>(entities.values());
         entities.clear();
+        byCell.clear();
+        indexedCell.clear();
+
+        for (Entity entity : removed) {
+            release(entity);
+        }
     }
 
     public Set<Long> ids() {
@@ -60,6 +113,12 @@ public class EntityTable {
      */
     public void add(Entity entity) {
         entities.put(entity.id(), entity);
+        entity.setTable(this);
+        reindex(entity);
+
+        for (Listener listener : listeners) {
+            listener.entityAdded(entity);
+        }
     }
 
     /**
@@ -67,7 +126,55 @@ public class EntityTable {
      * @param id The ID
      */
     public void remove(long id) {
-        entities.remove(id);
+        var entity = entities.remove(id);
+
+        if (entity != null) {
+            unindex(entity);
+            release(entity);
+        }
+    }
+
+    // Detaches a removed entity from the table and notifies the listeners.
+    private void release(Entity entity) {
+        if (entity.table() == this) {
+            entity.setTable(null);
+        }
+
+        for (Listener listener : listeners) {
+            listener.entityRemoved(entity);
+        }
+    }
+
+    /**
+     * Notifies the listeners that the entity has changed.  This is called
+     * by the entity itself.
+     * @param entity The entity
+     * @param component The class of the component that changed
+     */
+    void entityChanged(Entity entity, Class<?> component) {
+        if (component == Loc.class) {
+            reindex(entity);
+        }
+
+        for (Listener listener : listeners) {
+            listener.entityChanged(entity, component);
+        }
+    }
+
+    /**
+     * Adds a listener for changes to the table.
+     * @param listener The listener
+     */
+    public void addListener(Listener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a previously added listener.
+     * @param listener The listener
+     */
+    public void removeListener(Listener listener) {
+        listeners.remove(listener);
     }
 
     /**
@@ -102,7 +209,54 @@ public class EntityTable {
      * @return The entity, if found
      */
     public Optional<Entity> findAt(Cell cell, Class<?>...components) {
-        return query(components).filter(e -> e.isAt(cell)).findFirst();
+        var set = Set.of(components);
+
+        for (Entity entity : byCell.getOrDefault(cell, List.of())) {
+            if (entity.hasAll(set)) {
+                return Optional.of(entity);
+            }
+        }
+
+        return Optional.empty();
+    }
+
+    /**
+     * Queries for the entities that contain all of the given components
+     * and whose cells are within the given bounds.
+     * @param rowMin The first row
+     * @param colMin The first column
+     * @param rowMax One past the last row
+     * @param colMax One past the last column
+     * @param components The list of component types
+     * @return A stream of the entities
+     */
+    public Stream<Entity> queryWithin(
+        int rowMin, int colMin,
+        int rowMax, int colMax,
+        Class<?>... components)
+    {
+        var set = Set.of(components);
+        List<Entity> result = new ArrayList<>();
+
+        // Scan whichever is smaller, the bounds or the index.
+        if ((long)(rowMax - rowMin) * (colMax - colMin) < byCell.size()) {
+            for (int r = rowMin; r < rowMax; r++) {
+                for (int c = colMin; c < colMax; c++) {
+                    result.addAll(byCell.getOrDefault(new Cell(r, c), List.of()));
+                }
+            }
+        } else {
+            for (var e : byCell.entrySet()) {
+                var cell = e.getKey();
+                if (cell.row() >= rowMin && cell.row() < rowMax &&
+                    cell.col() >= colMin && cell.col() < colMax)
+                {
+                    result.addAll(e.getValue());
+                }
+            }
+        }
+
+        return result.stream().filter(e -> e.hasAll(set));
     }
 
     /**
@@ -114,6 +268,42 @@ public class EntityTable {
         return entities.values().stream();
     }
 
+    //-------------------------------------------------------------------------
+    // Spatial Index
+
+    // Updates the entity's place in the spatial index, if its cell has
+    // changed.
+    private void reindex(Entity entity) {
+        var loc = entity.loc();
+        var oldCell = indexedCell.get(entity.id());
+        var newCell = loc != null ? loc.cell() : null;
+
+        if (Objects.equals(oldCell, newCell)) {
+            return;
+        }
+
+        unindex(entity);
+
+        if (newCell != null) {
+            byCell.computeIfAbsent(newCell, c -> new ArrayList<>(1)).add(entity);
+            indexedCell.put(entity.id(), newCell);
+        }
+    }
+
+    // Removes the entity from the spatial index.
+    private void unindex(Entity entity) {
+        var cell = indexedCell.remove(entity.id());
+
+        if (cell != null) {
+            var list = byCell.get(cell);
+            list.remove(entity);
+
+            if (list.isEmpty()) {
+                byCell.remove(cell);
+            }
+        }
+    }
+
     /**
      * Dump the current set of entities to System.out.
      */
@@ -2,11 +2,15 @@ package com.wjduquette.george.ecs;
 
 import com.wjduquette.george.model.Role;
 
+import java.io.Serial;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Optional;
 
 public class Equipment implements Component {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     //-------------------------------------------------------------------------
     // Instance Variables
 
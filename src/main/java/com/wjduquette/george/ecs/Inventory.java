@@ -2,6 +2,8 @@ package com.wjduquette.george.ecs;
 
 import com.wjduquette.george.model.Items.Type;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Optional;
 
@@ -11,6 +13,9 @@ import java.util.Optional;
  * stackable items.
  */
 public class Inventory implements Component {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     //-------------------------------------------------------------------------
     // Types and Constants
 
@@ -22,7 +27,7 @@ public class Inventory implements Component {
      * @param entity The Item entity
      * @param count The number of items
      */
-    private record Slot(Entity entity, int count) {
+    private record Slot(Entity entity, int count) implements Serializable {
         /** Returns the type of the item in the slot. */
         public Type type() {
             return entity != null ? entity.item().type() : Type.NONE;
@@ -1,11 +1,23 @@
 package com.wjduquette.george.ecs;
 
 import com.wjduquette.george.model.Items;
+import com.wjduquette.george.util.Symbols;
+
+/**
+ * An item that can be carried in an inventory.
+ * @param symbol The symbol ID of the item's key in the items table
+ * @param type The item's type
+ */
+public record Item(int symbol, Items.Type type) implements Component {
+    public Item(String key, Items.Type type) {
+        this(Symbols.intern(key), type);
+    }
+
+    public String key() { return Symbols.name(symbol); }
 
-public record Item(String key, Items.Type type) implements Component {
     public boolean stacks() { return type.stacks(); }
 
     @Override public String toString() {
-        return "(Item " + key + " " + type + ")";
+        return "(Item " + key() + " " + type + ")";
     }
 }
@@ -1,10 +1,15 @@
 package com.wjduquette.george.ecs;
 
+import java.io.Serial;
+
 /**
  * A tag component for stacks of items on the ground.  It is created when
  * items are dropped, and deleted when all of the items are taken.
  */
 public class ItemStack implements Component {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     public final static int INVENTORY_SIZE = 100;
     @Override public String toString() { return "(ItemStack)"; }
 }
@@ -1,9 +1,41 @@
 package com.wjduquette.george.ecs;
 
+import com.wjduquette.george.util.Symbols;
+
+import java.io.Serial;
+
 /**
  * A Label provides the display name for an entity.
- * @param text The label's text
+ * @param symbol The symbol ID of the label's text
  */
-public record Label(String text) implements Component {
-    @Override public String toString() { return "(Label " + text + ")"; }
+public record Label(int symbol) implements Component {
+    /**
+     * Creates a label given its text.
+     * @param text The label's text
+     */
+    public Label(String text) {
+        this(Symbols.intern(text));
+    }
+
+    /**
+     * Gets the shared Label component with the given text.
+     * @param text The label's text
+     * @return The component
+     */
+    public static Label of(String text) {
+        return Components.share(new Label(text));
+    }
+
+    /** @return The label's text */
+    public String text() {
+        return Symbols.name(symbol);
+    }
+
+    // Rehydrated components are shared like any others.
+    @Serial
+    private Object readResolve() {
+        return Components.share(this);
+    }
+
+    @Override public String toString() { return "(Label " + text() + ")"; }
 }
@@ -1,5 +1,7 @@
 package com.wjduquette.george.ecs;
 
+import com.wjduquette.george.util.Symbols;
+
 /**
  * A Mannikin is a feature that you can talk to.  Its key is a prefix for
  * entries in the region's info table:
@@ -10,8 +12,21 @@ package com.wjduquette.george.ecs;
  *     <li>{@code <key>.description}: The mannikin's description.</li>
  *     <li>{@code <key>.greeting*}: Things the mannikin can say.</li>
  * </ul>
- * @param key The mannikin's info key
+ * @param symbol The symbol ID of the mannikin's info key
  */
-public record Mannikin(String key) implements Component {
-    @Override public String toString() { return "(Mannikin " + key + ")"; }
+public record Mannikin(int symbol) implements Component {
+    /**
+     * Creates a mannikin given its info key.
+     * @param key The mannikin's info key
+     */
+    public Mannikin(String key) {
+        this(Symbols.intern(key));
+    }
+
+    /** @return The mannikin's info key */
+    public String key() {
+        return Symbols.name(symbol);
+    }
+
+    @Override public String toString() { return "(Mannikin " + key() + ")"; }
 }
@@ -2,6 +2,7 @@ package com.wjduquette.george.ecs;
 
 import com.wjduquette.george.model.Step;
 
+import java.io.Serial;
 import java.util.ArrayDeque;
 
 /**
@@ -12,6 +13,9 @@ import java.util.ArrayDeque;
  * the entity.
  */
 public class Plan extends ArrayDeque<Step> implements Component {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     //-------------------------------------------------------------------------
     // Constructor
 
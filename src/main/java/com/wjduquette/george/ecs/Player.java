@@ -1,10 +1,15 @@
 package com.wjduquette.george.ecs;
 
+import java.io.Serial;
+
 /**
  * This component represents a player character, with its name, stats, status,
  * etc.
  */
 public class Player implements Component {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     public static final int INVENTORY_SIZE = 20;
 
     //-------------------------------------------------------------------------
@@ -1,14 +1,56 @@
 package com.wjduquette.george.ecs;
 
+import com.wjduquette.george.util.Symbols;
+
+import java.io.Serial;
+
 /**
  * A "sprite": a thing that can be drawn in a Cell over the terrain.
  * Sprites are associated with many other components, but almost always
  * with Loc, since the rendering system renders sprites at the their locs.
- * @param name The sprite's name in the application sprites table.
+ * @param symbol The symbol ID of the sprite's name in the application
+ *               sprites table.
  */
-public record Sprite(String name) implements Component {
+public record Sprite(int symbol) implements Component {
+    /**
+     * Creates a sprite given its name.
+     * @param name The sprite's name in the application sprites table.
+     */
+    public Sprite(String name) {
+        this(Symbols.intern(name));
+    }
+
+    /**
+     * Gets the shared Sprite component with the given name.
+     * @param name The sprite's name
+     * @return The component
+     */
+    public static Sprite of(String name) {
+        return Components.share(new Sprite(name));
+    }
+
+    /**
+     * Gets the shared Sprite component with the given name symbol.
+     * @param symbol The symbol ID of the sprite's name
+     * @return The component
+     */
+    public static Sprite of(int symbol) {
+        return Components.share(new Sprite(symbol));
+    }
+
+    /** @return The sprite's name. */
+    public String name() {
+        return Symbols.name(symbol);
+    }
+
+    // Rehydrated components are shared like any others.
+    @Serial
+    private Object readResolve() {
+        return Components.share(this);
+    }
+
     @Override public String toString() {
         // We'd need the tile's name to do more than this.
-        return "(Sprite " + name + ")";
+        return "(Sprite " + name() + ")";
     }
 }
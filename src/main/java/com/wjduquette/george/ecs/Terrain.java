@@ -2,6 +2,9 @@ package com.wjduquette.george.ecs;
 
 import com.wjduquette.george.model.TerrainType;
 
+import java.io.Serial;
+import java.util.Arrays;
+
 /**
  * A component for an entity that effects the terrain type of its cell.  Such
  * an entity will always have a Loc, and will usually have a Sprite.  There's no
@@ -11,6 +14,27 @@ import com.wjduquette.george.model.TerrainType;
  * @param terrainType The entity's terrain type
  */
 public record Terrain(TerrainType terrainType) implements Component {
+    // The shared instances, by terrain type
+    private static final Terrain[] SHARED =
+        Arrays.stream(TerrainType.values())
+            .map(Terrain::new)
+            .toArray(Terrain[]::new);
+
+    /**
+     * Gets the shared Terrain component for the terrain type.
+     * @param terrainType The terrain type
+     * @return The component
+     */
+    public static Terrain of(TerrainType terrainType) {
+        return SHARED[terrainType.ordinal()];
+    }
+
+    // Rehydrated components are shared like any others.
+    @Serial
+    private Object readResolve() {
+        return of(terrainType);
+    }
+
     @Override public String toString() {
         return "(Terrain " + terrainType + ")";
     }
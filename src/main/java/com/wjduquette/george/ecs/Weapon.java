@@ -1,10 +1,15 @@
 package com.wjduquette.george.ecs;
 
+import java.io.Serial;
+
 /**
  * Tags an Item entity as a Weapon.  For now this is just a tag;
  * later this will have weapon parameters.
  */
 public class Weapon implements Component {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     @Override public String toString() {
         return "(Weapon)";
     }
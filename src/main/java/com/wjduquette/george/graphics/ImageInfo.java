@@ -1,16 +1,26 @@
 package com.wjduquette.george.graphics;
 
+import javafx.geometry.Rectangle2D;
 import javafx.scene.image.Image;
 
 /**
- * Information about an image used in the game.
+ * Information about an image used in the game.  The image is a rectangle
+ * within a larger sheet image, e.g., a single sprite within a sprite
+ * sheet.  Many images share a single sheet, so that drawing them need not
+ * switch textures; see {@link ImageUtils#draw}.
  */
 public interface ImageInfo {
     /**
-     * Gets the actual image.
-     * @return The image
+     * Gets the sheet image that contains this image.
+     * @return The sheet
      */
-    Image image();
+    Image sheet();
+
+    /**
+     * Gets the image's bounds within its sheet, in pixels.
+     * @return The bounds
+     */
+    Rectangle2D bounds();
 
     /**
      * Gets the name by which the image is known internally.
@@ -22,11 +32,11 @@ public interface ImageInfo {
      * Gets the image's height.
      * @return The height in pixels
      */
-    default double height() { return image().getHeight(); }
+    default double height() { return bounds().getHeight(); }
 
     /**
      * Gets the image's width
      * @return The width in pixels
      */
-    default double width() { return image().getWidth(); }
+    default double width() { return bounds().getWidth(); }
 }
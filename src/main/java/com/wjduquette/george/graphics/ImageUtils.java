@@ -1,7 +1,9 @@
 package com.wjduquette.george.graphics;
 
+import javafx.geometry.Rectangle2D;
+import javafx.scene.canvas.GraphicsContext;
 import javafx.scene.image.Image;
-import javafx.scene.image.PixelReader;
+import javafx.scene.image.PixelFormat;
 import javafx.scene.image.PixelWriter;
 import javafx.scene.image.WritableImage;
 
@@ -16,47 +18,153 @@ public class ImageUtils {
 
     /**
      * Breaks a PNG image into a set of width*height tiles, reading from
-     * right to left and top to bottom.
+     * right to left and top to bottom.  The tiles are not copied; each is
+     * returned as its bounds within the source image.
      * @param sourceImage The source image.
      * @param width The tile width in pixels
      * @param height The tile height in pixels
-     * @return A list of the loaded tiles.
+     * @return A list of the tiles' bounds.
      */
-    public static List<Image> getTiles(Image sourceImage, int width, int height) {
-        List<Image> list = new ArrayList<>();
-
-        PixelReader reader = sourceImage.getPixelReader();
+    public static List<Rectangle2D> getTileBounds(
+        Image sourceImage,
+        int width,
+        int height)
+    {
+        List<Rectangle2D> list = new ArrayList<>();
 
         for (int j = 0; j < sourceImage.getHeight(); j += height) {
             for (int i = 0; i < sourceImage.getWidth(); i += width) {
-                list.add(new WritableImage(reader, i, j, width, height));
+                list.add(new Rectangle2D(i, j, width, height));
             }
         }
 
         return list;
     }
 
+    /**
+     * Draws the image at the given location, copying it from its sheet.
+     * @param gc The graphics context
+     * @param info The image
+     * @param x The x coordinate
+     * @param y The y coordinate
+     */
+    public static void draw(GraphicsContext gc, ImageInfo info, double x, double y) {
+        var b = info.bounds();
+        gc.drawImage(info.sheet(),
+            b.getMinX(), b.getMinY(), b.getWidth(), b.getHeight(),
+            x, y, b.getWidth(), b.getHeight());
+    }
+
+    /**
+     * Copies the image's pixels into the writer at the given location.
+     * @param writer The pixel writer
+     * @param info The image
+     * @param x The x coordinate
+     * @param y The y coordinate
+     */
+    public static void copy(PixelWriter writer, ImageInfo info, int x, int y) {
+        var b = info.bounds();
+        writer.setPixels(x, y, (int)b.getWidth(), (int)b.getHeight(),
+            info.sheet().getPixelReader(), (int)b.getMinX(), (int)b.getMinY());
+    }
+
+    /**
+     * Draws the image's pixels over the pixels already in the target
+     * image at the given location, blending them by their alpha.
+     * @param target The target image
+     * @param info The image
+     * @param x The x coordinate in the target
+     * @param y The y coordinate in the target
+     */
+    public static void overlay(WritableImage target, ImageInfo info, int x, int y) {
+        var format = PixelFormat.getIntArgbInstance();
+        var b = info.bounds();
+        int w = (int)b.getWidth();
+        int h = (int)b.getHeight();
+
+        var src = new int[w*h];
+        var dst = new int[w*h];
+        info.sheet().getPixelReader().getPixels(
+            (int)b.getMinX(), (int)b.getMinY(), w, h, format, src, 0, w);
+        target.getPixelReader().getPixels(x, y, w, h, format, dst, 0, w);
+
+        for (int i = 0; i < src.length; i++) {
+            dst[i] = blend(src[i], dst[i]);
+        }
+
+        target.getPixelWriter().setPixels(x, y, w, h, format, dst, 0, w);
+    }
+
+    // Composites the ARGB source pixel over the destination pixel.
+    private static int blend(int src, int dst) {
+        int sa = src >>> 24;
+
+        if (sa == 255) {
+            return src;
+        } else if (sa == 0) {
+            return dst;
+        }
+
+        int da = dst >>> 24;
+        int oa = sa + da * (255 - sa) / 255;
+        int result = oa << 24;
+
+        for (int shift = 0; shift <= 16; shift += 8) {
+            int sc = (src >>> shift) & 0xFF;
+            int dc = (dst >>> shift) & 0xFF;
+            int oc = (sc * sa + dc * da * (255 - sa) / 255) / oa;
+            result |= oc << shift;
+        }
+
+        return result;
+    }
+
     /**
      * Resizes the image to be factor times bigger, retaining pixelation.
+     * The pixels are read and written in bulk.  Callers that draw the
+     * same images repeatedly should use a {@link ScaledImageCache}.
      * @param source The source image
      * @param factor The factor, >= 1
      * @return The new image
      */
-    public static Image embiggen(Image source, int factor) {
-        PixelReader reader = source.getPixelReader();
-        int w = (int)source.getWidth();
-        int h = (int)source.getHeight();
-        WritableImage result = new WritableImage(w*factor, h*factor);
-        PixelWriter writer = result.getPixelWriter();
-
-        for (int i = 0; i < w*factor; i++) {
-            for (int j = 0; j < h*factor; j++) {
-                int si = i / factor;
-                int sj = j / factor;
-                writer.setColor(i,j, reader.getColor(si,sj));
+    public static Image embiggen(ImageInfo source, int factor) {
+        var format = PixelFormat.getIntArgbInstance();
+        int x0 = (int)source.bounds().getMinX();
+        int y0 = (int)source.bounds().getMinY();
+        int w = (int)source.width();
+        int h = (int)source.height();
+        int bigW = w*factor;
+        int bigH = h*factor;
+
+        // FIRST, read the source pixels.
+        int[] pixels = new int[w*h];
+        source.sheet().getPixelReader()
+            .getPixels(x0, y0, w, h, format, pixels, 0, w);
+
+        // NEXT, replicate each pixel factor times across, and each row
+        // factor times down.
+        int[] big = new int[bigW*bigH];
+
+        for (int j = 0; j < h; j++) {
+            int row = j*factor*bigW;
+
+            for (int i = 0; i < w; i++) {
+                int argb = pixels[j*w + i];
+                int col = row + i*factor;
+
+                for (int k = 0; k < factor; k++) {
+                    big[col + k] = argb;
+                }
+            }
+
+            for (int k = 1; k < factor; k++) {
+                System.arraycopy(big, row, big, row + k*bigW, bigW);
             }
         }
 
+        WritableImage result = new WritableImage(bigW, bigH);
+        result.getPixelWriter().setPixels(0, 0, bigW, bigH, format, big, 0, bigW);
+
         return result;
     }
 }
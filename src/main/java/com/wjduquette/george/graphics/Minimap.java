@@ -0,0 +1,194 @@
+package com.wjduquette.george.graphics;
+
+import com.wjduquette.george.ecs.Entity;
+import com.wjduquette.george.ecs.EntityTable;
+import com.wjduquette.george.ecs.Feature;
+import com.wjduquette.george.model.Cell;
+import com.wjduquette.george.model.Region;
+import com.wjduquette.george.model.TerrainType;
+import javafx.scene.image.Image;
+import javafx.scene.image.PixelFormat;
+import javafx.scene.image.PixelWriter;
+import javafx.scene.image.WritableImage;
+import javafx.scene.paint.Color;
+
+import java.util.*;
+
+/**
+ * A Minimap is an off-screen image of a region's map, one pixel per cell,
+ * showing the terrain types of the cells the player has seen.  It is
+ * kept up to date incrementally: the region marks cells dirty as they are
+ * seen, and the minimap marks a feature's cell dirty when the feature
+ * changes, e.g., when a door opens.  Dirty cells are recolored the next
+ * time the image is requested.
+ */
+public class Minimap {
+    //-------------------------------------------------------------------------
+    // Constants
+
+    // The color of cells that have not been seen.
+    private static final Color UNSEEN = Color.WHITE;
+
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The region
+    private final Region region;
+
+    // The image, one pixel per cell.
+    private final WritableImage image;
+
+    // The cells to recolor
+    private final Set<Cell> dirtyCells = new HashSet<>();
+
+    //-------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Creates the minimap for the region.  All cells seen so far are
+     * marked dirty.
+     * @param region The region
+     */
+    public Minimap(Region region) {
+        this.region = region;
+
+        var w = Math.max(1, region.getWidth());
+        var h = Math.max(1, region.getHeight());
+        this.image = new WritableImage(w, h);
+
+        // FIRST, fill the image with the unseen color.
+        var unseen = new int[w*h];
+        Arrays.fill(unseen, toArgb(UNSEEN));
+        image.getPixelWriter().setPixels(0, 0, w, h,
+            PixelFormat.getIntArgbInstance(), unseen, 0, w);
+
+        // NEXT, color the cells seen so far.
+        dirtyCells.addAll(region.seenCells());
+
+        // NEXT, watch for changes to features.
+        region.entities().addListener(new EntityTable.Listener() {
+            @Override public void entityAdded(Entity entity) {
+                featureChanged(entity);
+            }
+
+            @Override public void entityRemoved(Entity entity) {
+                featureChanged(entity);
+            }
+
+            @Override public void entityChanged(Entity entity, Class<?> component) {
+                featureChanged(entity);
+            }
+        });
+    }
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /**
+     * Marks the cell dirty, e.g., because it has just been seen.
+     * @param row The row
+     * @param col The column
+     */
+    public void markDirty(int row, int col) {
+        dirtyCells.add(new Cell(row, col));
+    }
+
+    /**
+     * Gets the up-to-date minimap image.
+     * @return The image
+     */
+    public Image image() {
+        if (!dirtyCells.isEmpty()) {
+            update();
+        }
+        return image;
+    }
+
+    //-------------------------------------------------------------------------
+    // Helpers
+
+    // Marks a feature's cell dirty.
+    private void featureChanged(Entity entity) {
+        if (entity.feature() != null && entity.loc() != null) {
+            dirtyCells.add(entity.cell());
+        }
+    }
+
+    // Recolors the dirty cells.  The terrain types of the feature entities
+    // in the dirty area are looked up once, in a single spatial query.
+    private void update() {
+        PixelWriter writer = image.getPixelWriter();
+        var featureTypes = featureTypes();
+
+        for (Cell cell : dirtyCells) {
+            var r = cell.row();
+            var c = cell.col();
+
+            if (r < 0 || r >= image.getHeight() || c < 0 || c >= image.getWidth()) {
+                continue;
+            }
+
+            Color color = UNSEEN;
+
+            if (region.isSeen(r, c)) {
+                var type = featureTypes.getOrDefault(cell, TerrainType.NONE);
+
+                if (type == TerrainType.NONE) {
+                    type = region.getStaticTerrainType(cell);
+                }
+                color = colorOf(type);
+            }
+
+            writer.setArgb(c, r, toArgb(color));
+        }
+
+        dirtyCells.clear();
+    }
+
+    // Gets the terrain types of the feature entities within the bounds of
+    // the dirty cells, by cell.
+    private Map<Cell, TerrainType> featureTypes() {
+        int rowMin = Integer.MAX_VALUE;
+        int colMin = Integer.MAX_VALUE;
+        int rowMax = Integer.MIN_VALUE;
+        int colMax = Integer.MIN_VALUE;
+
+        for (Cell cell : dirtyCells) {
+            rowMin = Math.min(rowMin, cell.row());
+            colMin = Math.min(colMin, cell.col());
+            rowMax = Math.max(rowMax, cell.row() + 1);
+            colMax = Math.max(colMax, cell.col() + 1);
+        }
+
+        var result = new HashMap<Cell, TerrainType>();
+
+        region.queryWithin(rowMin, colMin, rowMax, colMax, Feature.class)
+            .forEach(e -> {
+                var type = e.terrainType();
+                if (type != TerrainType.NONE) {
+                    result.put(e.cell(), type);
+                }
+            });
+
+        return result;
+    }
+
+    // The color used for each terrain type.
+    private static Color colorOf(TerrainType type) {
+        return switch (type) {
+            case NONE -> Color.BLACK;
+            case UNKNOWN -> Color.BLACK;
+            case WATER -> Color.BLUE;
+            case FLOOR -> Color.SANDYBROWN;
+            default -> Color.color(0.2, 0.2, 0.2);
+        };
+    }
+
+    // Converts a color to an ARGB pixel value.
+    private static int toArgb(Color color) {
+        return ((int)Math.round(color.getOpacity() * 255) << 24)
+            | ((int)Math.round(color.getRed() * 255) << 16)
+            | ((int)Math.round(color.getGreen() * 255) << 8)
+            | (int)Math.round(color.getBlue() * 255);
+    }
+}
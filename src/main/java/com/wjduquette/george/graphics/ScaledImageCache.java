@@ -0,0 +1,81 @@
+package com.wjduquette.george.graphics;
+
+import javafx.scene.image.Image;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A cache of enlarged copies of sprite images, as drawn in dialogs and
+ * other panels.  Images are keyed by sprite name and scale factor, and
+ * are created on demand using {@link ImageUtils#embiggen}.  The cache
+ * retains a limited number of images, discarding the least recently used.
+ */
+public class ScaledImageCache {
+    //-------------------------------------------------------------------------
+    // Constants
+
+    /** The default number of images to retain. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The cached images, in least-recently-used order
+    private final Map<Key, Image> images;
+
+    //-------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Creates a cache with the default capacity.
+     */
+    public ScaledImageCache() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache with the given capacity.
+     * @param capacity The maximum number of images to retain.
+     */
+    public ScaledImageCache(int capacity) {
+        this.images = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Image> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /**
+     * Gets the image enlarged by the given factor, creating it if need be.
+     * @param info The image
+     * @param factor The factor, >= 1
+     * @return The enlarged image
+     */
+    public Image get(ImageInfo info, int factor) {
+        return images.computeIfAbsent(new Key(info.name(), factor),
+            key -> ImageUtils.embiggen(info, factor));
+    }
+
+    /**
+     * Gets the number of images currently cached.
+     * @return The number
+     */
+    public int size() {
+        return images.size();
+    }
+
+    /**
+     * Discards all cached images.
+     */
+    public void clear() {
+        images.clear();
+    }
+
+    // The cache key
+    private record Key(String name, int factor) {}
+}
@@ -4,6 +4,8 @@ import com.wjduquette.george.model.TerrainTile;
 import com.wjduquette.george.util.KeywordParser;
 import com.wjduquette.george.util.Resource;
 import com.wjduquette.george.util.ResourceException;
+import com.wjduquette.george.util.Symbols;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.image.Image;
 
 import java.io.IOException;
@@ -50,6 +52,9 @@ import java.util.*;
  * file from left to right and top to bottom.  Indices are assigned in the
  * same order.</p>
  *
+ * <p>Sprites are not copied out of their PNG files; each sprite is
+ * a rectangle within its file's image, which serves as an atlas.</p>
+ *
  * <p>The {@code %unused} keyword is used to skip blank or unwanted sprites, so
  * as to preserve the relation of indices to PNG file tiles (as this is
  * important to external tools like the Tiled map editor).  The {@code %unused}
@@ -72,8 +77,12 @@ public class SpriteSet {
     // The map from name to sprite, in order of definition
     private final Map<String, SpriteInfo> spriteMap = new LinkedHashMap<>();
 
+    // The sprites by name symbol ID; see Symbols.
+    private SpriteInfo[] bySymbol = new SpriteInfo[0];
+
     // Transient; used during parsing.
-    private transient List<Image> images;
+    private transient Image sheet;
+    private transient List<Rectangle2D> tiles;
     private transient int nextIndex = 0;
 
     //-------------------------------------------------------------------------
@@ -115,21 +124,23 @@ public class SpriteSet {
         });
         parser.defineKeyword("%file", (scanner, $) -> {
             String filename = Resource.relativeTo(relPath, scanner.next());
-            Image fileImage = loadSpriteSetImage(cls, relPath, filename);
-            images = ImageUtils.getTiles(fileImage, width, height);
+            sheet = loadSpriteSetImage(cls, relPath, filename);
+            tiles = ImageUtils.getTileBounds(sheet, width, height);
             nextIndex = 0;
         });
         parser.defineKeyword("%sprite", (scanner, $) -> {
             var name = prefix + "." + scanner.next();
-            var info = new SpriteInfo(name, images.get(nextIndex++));
-            spriteMap.put(info.name(), info);
+            var info = new SpriteInfo(name, sheet, tiles.get(nextIndex++));
+            put(info);
         });
         parser.defineKeyword("%unused", (scanner, $) -> {
             // Do not add to name lookup.
             nextIndex++;
         });
 
-        parser.parse(Resource.getLines(cls, relPath));
+        parser.parse(cls, relPath);
+        sheet = null;
+        tiles = null;
     }
 
     private Image loadSpriteSetImage(
@@ -155,7 +166,7 @@ public class SpriteSet {
         if (other.height != this.height || other.width != this.width) {
             throw new IllegalArgumentException("Mismatched dimensions");
         }
-        spriteMap.putAll(other.spriteMap);
+        other.spriteMap.values().forEach(this::put);
     }
 
     /**
@@ -167,9 +178,21 @@ public class SpriteSet {
             throw new IllegalArgumentException("Mismatched dimensions");
         }
         for (Map.Entry<String, TerrainTile> e : set.getInfoMap().entrySet()) {
-            SpriteInfo info = new SpriteInfo(e.getKey(), e.getValue().image());
-            spriteMap.put(e.getKey(), info);
+            var tile = e.getValue();
+            put(new SpriteInfo(e.getKey(), tile.sheet(), tile.bounds()));
+        }
+    }
+
+    // Adds the sprite to the name and symbol lookups.
+    private void put(SpriteInfo info) {
+        spriteMap.put(info.name(), info);
+
+        var symbol = info.symbol();
+        if (symbol >= bySymbol.length) {
+            bySymbol = Arrays.copyOf(bySymbol,
+                Math.max(symbol + 1, Symbols.size()));
         }
+        bySymbol[symbol] = info;
     }
 
     /**
@@ -197,13 +220,30 @@ public class SpriteSet {
     }
 
     /**
-     * Get a tile image given its name.  Throws an exception if the name
+     * Get a sprite given its name.  Throws an exception if the name
      * is unknown.
      * @param name The name, including the prefix.
-     * @return The image
+     * @return The sprite
      */
-    public Image get(String name) {
-        return find(name).orElseThrow();
+    public SpriteInfo get(String name) {
+        return getInfo(name);
+    }
+
+    /**
+     * Get a sprite given the symbol ID of its name.  This is an array
+     * lookup, for use in the render loop.  Throws an exception if the
+     * sprite is unknown.
+     * @param symbol The symbol ID
+     * @return The sprite
+     */
+    public SpriteInfo get(int symbol) {
+        var info = symbol < bySymbol.length ? bySymbol[symbol] : null;
+
+        if (info == null) {
+            throw new NoSuchElementException(
+                "Unknown sprite: " + Symbols.name(symbol));
+        }
+        return info;
     }
 
     /**
@@ -225,16 +265,6 @@ public class SpriteSet {
         return Optional.ofNullable(spriteMap.get(name));
     }
 
-    /**
-     * Get a tile image given its name.
-     * @param name The name, including the prefix.
-     * @return The image
-     */
-    public Optional<Image> find(String name) {
-        SpriteInfo info = spriteMap.get(name);
-        return info != null ? Optional.of(info.image()) : Optional.empty();
-    }
-
     /**
      * Get a read-only map of the set's contents
      * @return The map
@@ -263,9 +293,20 @@ public class SpriteSet {
     // TileInfo
 
     /**
-     * A tile image.
-     * @param name The name by which it's known in the tile set.
-     * @param image The actual image.
+     * A sprite image.
+     * @param name The name by which it's known in the sprite set.
+     * @param sheet The PNG file's image, which contains the sprite.
+     * @param bounds The sprite's bounds within the sheet.
+     * @param symbol The name's symbol ID
      */
-    public record SpriteInfo(String name, Image image) implements ImageInfo {}
+    public record SpriteInfo(
+        String name,
+        Image sheet,
+        Rectangle2D bounds,
+        int symbol
+    ) implements ImageInfo {
+        public SpriteInfo(String name, Image sheet, Rectangle2D bounds) {
+            this(Symbols.canonical(name), sheet, bounds, Symbols.intern(name));
+        }
+    }
 }
@@ -0,0 +1,289 @@
+package com.wjduquette.george.graphics;
+
+import com.wjduquette.george.model.Region;
+import com.wjduquette.george.model.TerrainTile;
+import javafx.scene.canvas.GraphicsContext;
+import javafx.scene.image.Image;
+import javafx.scene.image.WritableImage;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A TerrainLayerCache holds pre-rendered images of a region's terrain
+ * layer, with its static features drawn over the terrain, so that the
+ * view can draw a few large images per frame rather than one small image
+ * per cell.  The terrain is divided into square chunks of cells; each
+ * chunk's image is built the first time it is needed.  The cache retains
+ * a limited number of chunks, discarding the least recently used.
+ *
+ * <p>Terrain tiles and static features never change once a region is
+ * loaded, so cached chunks never need to be rebuilt.  Interactive features,
+ * e.g., doors, are entities and are drawn separately.</p>
+ */
+public class TerrainLayerCache {
+    //-------------------------------------------------------------------------
+    // Constants
+
+    /** The default chunk size, in cells. */
+    public static final int DEFAULT_CHUNK_SIZE = 16;
+
+    /** The default number of chunks to retain, until fitted to a view. */
+    public static final int DEFAULT_CAPACITY = 24;
+
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The region whose terrain we are caching
+    private final Region region;
+
+    // The chunk size, in cells
+    private final int chunkSize;
+
+    // The maximum number of chunks to retain
+    private int capacity;
+
+    // The cached chunk images, in least-recently-used order.
+    private final Map<Chunk, Image> chunks;
+
+    //-------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Creates a cache for the region with the default chunk size and
+     * capacity.
+     * @param region The region
+     */
+    public TerrainLayerCache(Region region) {
+        this(region, DEFAULT_CHUNK_SIZE, DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a cache for the region.
+     * @param region The region
+     * @param chunkSize The chunk size in cells
+     * @param capacity The maximum number of chunks to retain
+     */
+    public TerrainLayerCache(Region region, int chunkSize, int capacity) {
+        this.region = region;
+        this.chunkSize = chunkSize;
+        this.capacity = capacity;
+        this.chunks = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Chunk, Image> eldest) {
+                return size() > TerrainLayerCache.this.capacity;
+            }
+        };
+    }
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /**
+     * Gets the chunk size in cells.
+     * @return The size
+     */
+    public int chunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Gets the maximum number of chunks the cache retains.
+     * @return The capacity
+     */
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Sizes the cache for a view of the given size, so that it can hold
+     * twice the chunks the view can overlap plus a ring of prefetched
+     * chunks around them.  The capacity is never less than
+     * DEFAULT_CAPACITY.  Call this when the view is resized.
+     * @param viewWidth The view's width, in pixels
+     * @param viewHeight The view's height, in pixels
+     */
+    public void fitView(double viewWidth, double viewHeight) {
+        // A view that isn't chunk-aligned overlaps one more chunk in
+        // each dimension; the prefetch ring adds one on each side.
+        var cols = (int)Math.ceil(viewWidth / (region.getTileWidth()*chunkSize)) + 3;
+        var rows = (int)Math.ceil(viewHeight / (region.getTileHeight()*chunkSize)) + 3;
+
+        setCapacity(Math.max(DEFAULT_CAPACITY, 2*rows*cols));
+    }
+
+    /**
+     * Sets the maximum number of chunks to retain, discarding the least
+     * recently used chunks if need be.
+     * @param capacity The capacity
+     */
+    public void setCapacity(int capacity) {
+        this.capacity = capacity;
+
+        var iter = chunks.keySet().iterator();
+        while (chunks.size() > capacity && iter.hasNext()) {
+            iter.next();
+            iter.remove();
+        }
+    }
+
+    /**
+     * Gets the number of chunks currently cached.
+     * @return The number
+     */
+    public int size() {
+        return chunks.size();
+    }
+
+    /**
+     * Gets the image for the chunk containing the given cell, building
+     * it if need be.
+     * @param row The cell's row
+     * @param col The cell's column
+     * @return The chunk's image
+     */
+    public Image chunkAt(int row, int col) {
+        var chunk = new Chunk(
+            Math.floorDiv(row, chunkSize), Math.floorDiv(col, chunkSize));
+
+        return chunks.computeIfAbsent(chunk, this::render);
+    }
+
+    /**
+     * Renders up to budget chunks covering the given range of cells that
+     * are not yet cached, so that they are ready when needed.  Cells
+     * outside the region are ignored.
+     * @param rowMin The first row
+     * @param colMin The first column
+     * @param rowMax One past the last row
+     * @param colMax One past the last column
+     * @param budget The maximum number of chunks to render
+     * @return The number of chunks rendered
+     */
+    public int prefetch(
+        int rowMin, int colMin,
+        int rowMax, int colMax,
+        int budget)
+    {
+        rowMin = Math.max(0, rowMin);
+        colMin = Math.max(0, colMin);
+        rowMax = Math.min(region.getHeight(), rowMax);
+        colMax = Math.min(region.getWidth(), colMax);
+
+        int count = 0;
+
+        for (int r = chunkStart(rowMin); r < rowMax; r += chunkSize) {
+            for (int c = chunkStart(colMin); c < colMax; c += chunkSize) {
+                if (count == budget) {
+                    return count;
+                }
+
+                var chunk = new Chunk(r / chunkSize, c / chunkSize);
+
+                if (!chunks.containsKey(chunk)) {
+                    chunks.put(chunk, render(chunk));
+                    count++;
+                }
+            }
+        }
+
+        return count;
+    }
+
+    /**
+     * Draws the terrain for the given range of cells, which should be
+     * within the region's bounds.  The chunks are drawn whole, so terrain
+     * outside the range might also be drawn.
+     * @param gc The graphics context
+     * @param rowMin The first row
+     * @param colMin The first column
+     * @param rowMax One past the last row
+     * @param colMax One past the last column
+     * @param x The x coordinate at which to draw cell (0,0)
+     * @param y The y coordinate at which to draw cell (0,0)
+     */
+    public void draw(
+        GraphicsContext gc,
+        int rowMin, int colMin,
+        int rowMax, int colMax,
+        double x, double y)
+    {
+        var tw = region.getTileWidth();
+        var th = region.getTileHeight();
+
+        for (int r = chunkStart(rowMin); r < rowMax; r += chunkSize) {
+            for (int c = chunkStart(colMin); c < colMax; c += chunkSize) {
+                gc.drawImage(chunkAt(r, c), x + c*tw, y + r*th);
+            }
+        }
+    }
+
+    /**
+     * Draws the terrain for a single cell from its cached chunk.
+     * @param gc The graphics context
+     * @param row The cell's row
+     * @param col The cell's column
+     * @param x The x coordinate at which to draw the cell
+     * @param y The y coordinate at which to draw the cell
+     */
+    public void drawCell(GraphicsContext gc, int row, int col, double x, double y) {
+        var tw = region.getTileWidth();
+        var th = region.getTileHeight();
+        var sx = (col - chunkStart(col)) * tw;
+        var sy = (row - chunkStart(row)) * th;
+
+        gc.drawImage(chunkAt(row, col), sx, sy, tw, th, x, y, tw, th);
+    }
+
+    /**
+     * Discards all cached chunks.
+     */
+    public void clear() {
+        chunks.clear();
+    }
+
+    //-------------------------------------------------------------------------
+    // Helpers
+
+    // Gets the first row or column of the chunk containing the given
+    // row or column.
+    private int chunkStart(int index) {
+        return Math.floorDiv(index, chunkSize) * chunkSize;
+    }
+
+    // Renders a chunk by copying its terrain tiles' pixels into a single
+    // image, and then drawing its static features over them.  Chunks at the
+    // edge of the region are truncated.
+    private Image render(Chunk chunk) {
+        var tw = region.getTileWidth();
+        var th = region.getTileHeight();
+        var r0 = chunk.row() * chunkSize;
+        var c0 = chunk.col() * chunkSize;
+        var rows = Math.max(1, Math.min(chunkSize, region.getHeight() - r0));
+        var cols = Math.max(1, Math.min(chunkSize, region.getWidth() - c0));
+
+        var image = new WritableImage(cols*tw, rows*th);
+        var writer = image.getPixelWriter();
+
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                TerrainTile tile = region.getTerrain(r0 + r, c0 + c);
+
+                if (tile != null) {
+                    ImageUtils.copy(writer, tile, c*tw, r*th);
+                }
+
+                TerrainTile feature = region.getFeature(r0 + r, c0 + c);
+
+                if (feature != null) {
+                    ImageUtils.overlay(image, feature, c*tw, r*th);
+                }
+            }
+        }
+
+        return image;
+    }
+
+    // A chunk's coordinates, in chunks.
+    private record Chunk(int row, int col) {}
+}
@@ -5,6 +5,7 @@ import com.wjduquette.george.model.TerrainType;
 import com.wjduquette.george.util.KeywordParser;
 import com.wjduquette.george.util.Resource;
 import com.wjduquette.george.util.ResourceException;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.image.Image;
 
 import java.io.File;
@@ -81,7 +82,8 @@ public class TerrainTileSet {
     private final Map<String, TerrainTile> tileMap = new HashMap<>();
 
     // Transient; used during parsing.
-    private transient List<Image> images;
+    private transient Image sheet;
+    private transient List<Rectangle2D> tiles;
     private transient int nextIndex = 0;
 
     //-------------------------------------------------------------------------
@@ -121,8 +123,8 @@ public class TerrainTileSet {
         });
         parser.defineKeyword("%file", (scanner, $) -> {
             String filename = scanner.next();
-            Image fileImage = loadTileSetImage(cls, relPath, filename);
-            images = ImageUtils.getTiles(fileImage, tileWidth, tileHeight);
+            sheet = loadTileSetImage(cls, relPath, filename);
+            tiles = ImageUtils.getTileBounds(sheet, tileWidth, tileHeight);
             nextIndex = 0;
         });
         parser.defineKeyword("%tile", (scanner, $) -> {
@@ -133,7 +135,7 @@ public class TerrainTileSet {
                 type = getTerrainType(scanner.next());
             }
             var info = new TerrainTile(name, type, description,
-                images.get(nextIndex++));
+                sheet, tiles.get(nextIndex++));
             tileList.add(info);
             tileMap.put(info.name(), info);
         });
@@ -141,12 +143,13 @@ public class TerrainTileSet {
             // Do not add to name lookup.
             var unused = new TerrainTile(
                 "unused", TerrainType.UNKNOWN, "unused",
-                images.get(nextIndex++));
+                sheet, tiles.get(nextIndex++));
             tileList.add(unused);
         });
 
-        parser.parse(Resource.getLines(cls, relPath));
-        images = null;
+        parser.parse(cls, relPath);
+        sheet = null;
+        tiles = null;
     }
 
     private Image loadTileSetImage(
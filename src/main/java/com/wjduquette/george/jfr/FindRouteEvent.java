@@ -0,0 +1,29 @@
+package com.wjduquette.george.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event recording a single call to the A* route finder.
+ */
+@Name("george.FindRoute")
+@Label("Find Route")
+@Category({"George", "Pathfinding"})
+@Description("A single A* route computation")
+public class FindRouteEvent extends Event {
+    @Label("Start")
+    public String start;
+
+    @Label("Goal")
+    public String goal;
+
+    @Label("Nodes Expanded")
+    public int nodesExpanded;
+
+    @Label("Route Length")
+    @Description("The length of the computed route, or 0 if none was found")
+    public int routeLength;
+}
@@ -0,0 +1,38 @@
+package com.wjduquette.george.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event recording the duration of one phase of the game loop, e.g.,
+ * planning, movement, or repainting.
+ */
+@Name("george.GameLoopPhase")
+@Label("Game Loop Phase")
+@Category({"George", "Game Loop"})
+@Description("One phase of a single iteration of the game loop")
+public class GameLoopPhaseEvent extends Event {
+    @Label("Phase")
+    public String phase;
+
+    @Label("Game Tick")
+    public long gameTick;
+
+    /**
+     * Creates and begins an event for the named phase.  The caller
+     * should commit it when the phase is complete.
+     * @param phase The phase name
+     * @param gameTick The current game tick
+     * @return The event
+     */
+    public static GameLoopPhaseEvent begin(String phase, long gameTick) {
+        var event = new GameLoopPhaseEvent();
+        event.phase = phase;
+        event.gameTick = gameTick;
+        event.begin();
+        return event;
+    }
+}
@@ -0,0 +1,23 @@
+package com.wjduquette.george.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event recording the construction of a region the first time it
+ * is requested.
+ */
+@Name("george.RegionLoad")
+@Label("Region Load")
+@Category({"George", "Regions"})
+@Description("Loading and constructing a region")
+public class RegionLoadEvent extends Event {
+    @Label("Region")
+    public String region;
+
+    @Label("Entities")
+    public int entityCount;
+}
@@ -0,0 +1,19 @@
+package com.wjduquette.george.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JFR event recording a single repaint of the main game view.
+ */
+@Name("george.Repaint")
+@Label("Game View Repaint")
+@Category({"George", "Rendering"})
+@Description("A single call to GameView.onRepaint")
+public class RepaintEvent extends Event {
+    @Label("Region")
+    public String region;
+}
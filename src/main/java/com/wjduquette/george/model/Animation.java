@@ -3,11 +3,14 @@ package com.wjduquette.george.model;
 import com.wjduquette.george.ecs.Entity;
 import com.wjduquette.george.ecs.Loc;
 
+import java.io.Serial;
+import java.io.Serializable;
+
 /**
  * This sealed interface contains variants that describe the kinds of
  * animations that can be handled by the Animation system.
  */
-public sealed interface Animation {
+public sealed interface Animation extends Serializable {
     /**
      * Gets whether the animation is complete or not.
      * @return true or false
@@ -19,6 +22,9 @@ public sealed interface Animation {
      * at the given speed.
      */
     final class Slide implements Animation {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
         private final double baseRate = 0.2;
         private final long target;
         private final int numSteps;
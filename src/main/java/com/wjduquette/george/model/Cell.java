@@ -1,5 +1,6 @@
 package com.wjduquette.george.model;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
@@ -10,7 +11,7 @@ import java.util.List;
  * @param row The cell's row index
  * @param col The cell's column index
  */
-public record Cell(int row, int col) {
+public record Cell(int row, int col) implements Serializable {
     /**
      * Creates new cell at a delta from this cell.
      * @param rowDelta The row delta
@@ -0,0 +1,161 @@
+package com.wjduquette.george.model;
+
+import com.wjduquette.george.tmx.TiledMapReader;
+
+import java.nio.IntBuffer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
+/**
+ * A ChunkedTileLayer is a TileLayer for a tile layer in a Tiled infinite
+ * map, which is stored as a set of chunks.  Chunks are loaded, i.e.,
+ * copied from the map's (possibly memory-mapped) chunk data into arrays,
+ * the first time a cell within them is queried; only a limited number of
+ * chunks are kept resident, and the least recently used are unloaded when
+ * that number is exceeded.  Cells in chunks that do not exist have no tile.
+ *
+ * <p>Only views of the chunk data are retained between loads, and they are
+ * not copied.  TiledMapReader maps an infinite map's chunks from a
+ * compiled map file, even if the map was parsed from JSON, so the layer's
+ * heap footprint is bounded by its capacity; the OS pages the chunk data
+ * in and out as needed.</p>
+ *
+ * <p>Region cell (0,0) corresponds to the layer's (startx, starty) unless
+ * another origin is given, e.g., the terrain layer's.</p>
+ */
+public class ChunkedTileLayer implements TileLayer {
+    //-------------------------------------------------------------------------
+    // Constants
+
+    /** The default number of chunks to keep resident. */
+    public static final int DEFAULT_CAPACITY = 64;
+
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The map coordinates of region cell (0,0)
+    private final int rowOrigin;
+    private final int colOrigin;
+
+    // The size of each chunk, in cells
+    private final int chunkHeight;
+    private final int chunkWidth;
+
+    // Maps each GID as its chunk is loaded.
+    private final IntUnaryOperator filter;
+
+    // Views of the layer's chunk data, by key.
+    private final Map<Key, IntBuffer> sources = new HashMap<>();
+
+    // The resident chunks, in least-recently-used order.
+    private final Map<Key, int[]> resident;
+
+    //-------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Creates a chunked tile layer with the default capacity.
+     * @param layer The layer, from an infinite map
+     */
+    public ChunkedTileLayer(TiledMapReader.Layer layer) {
+        this(layer, layer.starty, layer.startx, DEFAULT_CAPACITY,
+            IntUnaryOperator.identity());
+    }
+
+    /**
+     * Creates a chunked tile layer.
+     * @param layer The layer, from an infinite map
+     * @param rowOrigin The map row of region cell (0,0)
+     * @param colOrigin The map column of region cell (0,0)
+     * @param capacity The maximum number of chunks to keep resident
+     * @param filter Maps each GID as it is loaded, e.g., to 0 for tiles
+     *               that are represented some other way.
+     */
+    public ChunkedTileLayer(
+        TiledMapReader.Layer layer,
+        int rowOrigin,
+        int colOrigin,
+        int capacity,
+        IntUnaryOperator filter)
+    {
+        this.filter = filter;
+        this.rowOrigin = rowOrigin;
+        this.colOrigin = colOrigin;
+
+        // Tiled's chunks are all the same size.
+        var first = layer.chunks().stream().findFirst();
+        this.chunkHeight = first.map(c -> c.height).orElse(1);
+        this.chunkWidth = first.map(c -> c.width).orElse(1);
+
+        for (var chunk : layer.chunks()) {
+            sources.put(keyOf(chunk.y, chunk.x), chunk.tiles());
+        }
+
+        this.resident = new LinkedHashMap<>(capacity, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, int[]> eldest) {
+                return size() > capacity;
+            }
+        };
+    }
+
+    //-------------------------------------------------------------------------
+    // TileLayer API
+
+    @Override
+    public int gid(int row, int col) {
+        var y = row + rowOrigin;
+        var x = col + colOrigin;
+        var key = keyOf(y, x);
+        var data = resident.get(key);
+
+        if (data == null) {
+            var source = sources.get(key);
+
+            if (source == null) {
+                return 0;
+            }
+
+            data = load(source);
+            resident.put(key, data);
+        }
+
+        return data[(y - key.row()*chunkHeight) * chunkWidth
+            + (x - key.col()*chunkWidth)];
+    }
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /**
+     * Gets the number of chunks currently resident.
+     * @return The number
+     */
+    public int residentCount() {
+        return resident.size();
+    }
+
+    //-------------------------------------------------------------------------
+    // Helpers
+
+    // Gets the key of the chunk containing the map coordinates.
+    private Key keyOf(int y, int x) {
+        return new Key(Math.floorDiv(y, chunkHeight), Math.floorDiv(x, chunkWidth));
+    }
+
+    // Copies the chunk's GIDs into a full-size array.
+    private int[] load(IntBuffer tiles) {
+        var data = new int[chunkHeight * chunkWidth];
+        tiles.get(0, data, 0, Math.min(data.length, tiles.limit()));
+
+        for (int i = 0; i < data.length; i++) {
+            data[i] = filter.applyAsInt(data[i]);
+        }
+        return data;
+    }
+
+    // A chunk's coordinates, in chunks.
+    private record Key(int row, int col) {}
+}
@@ -7,6 +7,13 @@ import com.wjduquette.george.tmx.TiledMapReader;
 import com.wjduquette.george.tmx.TiledMapReader.Layer;
 import com.wjduquette.george.util.*;
 
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.IntUnaryOperator;
+
 /**
  * Region is a class for loading and querying region definitions defined as
  * resources.  A Region resource has several components:
@@ -43,6 +50,25 @@ public class DataDrivenRegion extends Region {
     public static final String POINT = "Point";
     public static final String SIGN = "Sign";
 
+    // The number of chunks of door GIDs to keep resident; only the chunks
+    // being loaded are needed.
+    private static final int DOOR_CAPACITY = 4;
+
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The Tiled map coordinates of cell (0,0).  These are non-zero only for
+    // infinite maps, whose coordinates can be negative.
+    private int rowOrigin = 0;
+    private int colOrigin = 0;
+
+    // For infinite maps, the objects not yet loaded, by EntityChunks key.
+    private final Map<Long, List<TiledMapReader.MapObject>> objectChunks =
+        new HashMap<>();
+
+    // For infinite maps, the door GIDs in the Features layer.
+    private TileLayer doors = TileLayer.EMPTY;
+
     //-------------------------------------------------------------------------
     // Constructor
 
@@ -91,12 +117,37 @@ public class DataDrivenRegion extends Region {
             readTiledMap(cls, filename);
         });
 
-        parser.parse(Resource.getLines(cls, relPath));
+        parser.parse(cls, relPath);
     }
 
     // Populates the entities table given the content of the reader.
     private void readTiledMap(Class<?> cls, String filename) {
-        TiledMapReader map = TiledMapReader.read(cls, filename);
+        // FIRST, objects are handled as they are read, rather than being
+        // collected in the map.  The map's tile size might not have been
+        // read yet, but it matches the terrain tile set's.  A finite map's
+        // objects become entities immediately.  An infinite map's are
+        // grouped by chunk, to become entities as the chunks are loaded;
+        // but points are always present, as they are looked up by name,
+        // and wait only for the map's origin to be known.
+        this.tileHeight = terrainTileSet.height();
+        this.tileWidth = terrainTileSet.width();
+
+        var points = new ArrayList<TiledMapReader.MapObject>();
+
+        TiledMapReader map = TiledMapReader.read(cls, filename,
+            (m, layer, obj) -> {
+                if (!m.infinite) {
+                    readObject(obj);
+                } else if (POINT.equals(obj.type)) {
+                    points.add(obj);
+                } else {
+                    var key = EntityChunks.keyOf(
+                        Math.floorDiv(obj.y, tileHeight),
+                        Math.floorDiv(obj.x, tileWidth));
+                    objectChunks.computeIfAbsent(key, k -> new ArrayList<>())
+                        .add(obj);
+                }
+            });
 
         this.width = map.width;
         this.height = map.height;
@@ -105,31 +156,31 @@ public class DataDrivenRegion extends Region {
 
         readTerrainLayer(map);
         readFeaturesLayer(map);
-        readObjects(map);
 
-        for (int i = 0; i < height*width; i++) {
-            seen.add(false);
+        // NEXT, an infinite map's entities are loaded as the players
+        // approach.
+        if (map.infinite) {
+            points.forEach(this::readObject);
+            entityChunks = new EntityChunks(entities, rowOrigin, colOrigin,
+                this::loadChunk);
         }
     }
 
+    // The terrain layer's GIDs are used in place; Region.getTerrain()
+    // maps them to tiles.  An infinite map's terrain is loaded a chunk at
+    // a time, as needed, and its bounds determine the region's.
+    // TODO: Base the GID to tile mapping on the layer's firstgid.
     private void readTerrainLayer(TiledMapReader map) {
         Layer terrainLayer = map.tileLayer(TERRAIN_LAYER).orElseThrow();
 
-        terrain.ensureCapacity(terrainLayer.data.length);
-
-        for (int i = 0; i < terrainLayer.data.length; i++) {
-            // FIRST, Tiled numbers tiles from 1 to N; we use 0 to N-1.
-            // TODO: Base this on the layer's firstgid.
-            int tileIndex = terrainLayer.data[i] - 1;
-
-            // Skip empty tiles.
-            if (tileIndex < 0) {
-                continue;
-            }
-
-            // Save the tile to the terrain list.
-            TerrainTile tile = terrainTileSet.get(tileIndex);
-            terrain.add(tile);
+        if (map.infinite) {
+            rowOrigin = terrainLayer.starty;
+            colOrigin = terrainLayer.startx;
+            height = terrainLayer.height;
+            width = terrainLayer.width;
+            terrain = new ChunkedTileLayer(terrainLayer);
+        } else {
+            terrain = TileLayer.of(terrainLayer.tiles(), width);
         }
     }
 
@@ -140,77 +191,130 @@ public class DataDrivenRegion extends Region {
             return;
         }
 
-        for (int i = 0; i < layer.data.length; i++) {
-            // FIRST, get the row, column, and tile set index.
-            // Tiled numbers tiles from 1 to N; we use 0 to N-1.
-            int r = i / map.height;
-            int c = i % map.width;
-            int tileIndex = layer.data[i] - 1;
+        // FIRST, static features are stored compactly as GIDs, omitting
+        // the interactive features.  As for the terrain, an infinite map's
+        // features are loaded a chunk at a time; so are its interactive
+        // features, which become entities as the players approach (see
+        // loadChunk()).
+        IntUnaryOperator filter = gid -> doorState(gid) == null ? gid : 0;
+
+        if (map.infinite) {
+            features = new ChunkedTileLayer(layer, rowOrigin, colOrigin,
+                ChunkedTileLayer.DEFAULT_CAPACITY, filter);
+            doors = new ChunkedTileLayer(layer, rowOrigin, colOrigin,
+                DOOR_CAPACITY, gid -> doorState(gid) != null ? gid : 0);
+            return;
+        }
 
-            // Skip empty tiles.
-            if (tileIndex < 0) {
-                continue;
-            }
+        var gids = new int[height * width];
+        var tiles = layer.tiles();
+        tiles.get(gids, 0, Math.min(gids.length, tiles.remaining()));
 
-            // NEXT, create the feature with its type, sprite, and cell.
-            TerrainTile tile = terrainTileSet.get(tileIndex);
-
-            Entity feature = entities.make()
-                .tagAsFeature()
-                .label(tile.description())
-                .terrain(tile.type())
-                .sprite(tile)
-                .cell(r, c);
-
-            // NEXT, Handle special cases.
-            //
-            // I'm not entirely happy about this convention, but it works well
-            // enough for the majority of doors in a region.  We will also want
-            // to have "door" objects allowed in Tiled object groups.
-            var closed = prefix() + ".closed_door";
-            var open = prefix() + ".open_door";
-
-            if (tile.name().equals(closed)) {
-                var door = new Door(Opening.CLOSED, tile.type(), closed, open);
-                feature.door(door);
-            } else if (tile.name().equals(open)) {
-                var door = new Door(Opening.OPEN, tile.type(), closed, open);
-                feature.door(door);
-            }
+        // NEXT, interactive features become entities.
+        for (int i = 0; i < gids.length; i++) {
+            addFeature(i / width, i % width, gids[i]);
+            gids[i] = filter.applyAsInt(gids[i]);
         }
+
+        features = TileLayer.of(IntBuffer.wrap(gids), width);
     }
 
-    private void readObjects(TiledMapReader map) {
-        for (Layer layer : map.layers()) {
-            if (!layer.type.equals(TiledMapReader.OBJECT_GROUP)) {
-                continue;
+    // Creates the entities in a chunk of an infinite map, as the players
+    // approach it: the doors in its Features layer, and its objects.
+    private void loadChunk(
+        long key,
+        int rowMin, int colMin,
+        int rowMax, int colMax)
+    {
+        for (int r = Math.max(rowMin, 0); r < Math.min(rowMax, height); r++) {
+            for (int c = Math.max(colMin, 0); c < Math.min(colMax, width); c++) {
+                addFeature(r, c, doors.gid(r, c));
             }
+        }
 
-            for (TiledMapReader.MapObject obj : layer.objects()) {
-                // For those objects whose name is an info key.
-                var key = prefix + "." + obj.name;
-                var cell = object2cell(obj);
+        var objects = objectChunks.remove(key);
 
-                // FIRST, see if a subclass wants to handle it.
-                if (handleObject(key, obj)) {
-                    continue;
-                }
+        if (objects != null) {
+            objects.forEach(this::readObject);
+        }
+    }
 
-                // NEXT, if not handle it in the standard way.
-                var entity = switch (obj.type) {
-                    case CHEST    -> makeChest(key).cell(cell);
-                    case EXIT     -> makeExit(obj.name).cell(cell);
-                    case MANNIKIN -> makeMannikin(key).cell(cell);
-                    case POINT    -> makePoint(obj.name).cell(cell);
-                    case SIGN     -> makeSign(key).cell(cell);
-                    default -> null;
-                };
-
-                // NEXT, save the entity, if any
-                if (entity != null) {
-                    entities.add(entity);
-                }
-            }
+    // Creates a feature entity for the tile in the Features layer if it is
+    // interactive, i.e., a door.
+    private void addFeature(int r, int c, int gid) {
+        var state = doorState(gid);
+
+        if (state == null) {
+            return;
+        }
+
+        // Tiled numbers tiles from 1 to N; we use 0 to N-1.
+        TerrainTile tile = terrainTileSet.get(gid - 1);
+        var closed = prefix() + ".closed_door";
+        var open = prefix() + ".open_door";
+
+        entities.make()
+            .tagAsFeature()
+            .label(tile.description())
+            .terrain(tile.type())
+            .sprite(tile)
+            .cell(r, c)
+            .door(Components.share(
+                new Door(state, tile.type(), closed, open)));
+    }
+
+    // Gets the state of the door represented by the GID, or null if the
+    // GID is not a door tile.
+    private Opening doorState(int gid) {
+        // FIRST, get the tile set index.
+        // Tiled numbers tiles from 1 to N; we use 0 to N-1.
+        int tileIndex = gid - 1;
+
+        // Skip empty tiles.
+        if (tileIndex < 0) {
+            return null;
+        }
+
+        // NEXT, only doors are interactive.
+        //
+        // I'm not entirely happy about this convention, but it works well
+        // enough for the majority of doors in a region.  We will also want
+        // to have "door" objects allowed in Tiled object groups.
+        var name = terrainTileSet.get(tileIndex).name();
+
+        if (name.equals(prefix() + ".closed_door")) {
+            return Opening.CLOSED;
+        } else if (name.equals(prefix() + ".open_door")) {
+            return Opening.OPEN;
+        } else {
+            return null;
+        }
+    }
+
+    // Creates the entity for an object in one of the map's object groups.
+    private void readObject(TiledMapReader.MapObject obj) {
+        // For those objects whose name is an info key.
+        var key = prefix + "." + obj.name;
+        var cell = object2cell(obj);
+
+        // FIRST, see if a subclass wants to handle it.
+        if (handleObject(key, obj)) {
+            return;
+        }
+
+        // NEXT, if not handle it in the standard way.
+        var entity = switch (obj.type) {
+            case CHEST    -> makeChest(key).cell(cell);
+            case EXIT     -> makeExit(obj.name).cell(cell);
+            case MANNIKIN -> makeMannikin(key).cell(cell);
+            case POINT    -> makePoint(obj.name).cell(cell);
+            case SIGN     -> makeSign(key).cell(cell);
+            default -> null;
+        };
+
+        // NEXT, save the entity, if any
+        if (entity != null) {
+            entities.add(entity);
         }
     }
 
@@ -234,6 +338,8 @@ public class DataDrivenRegion extends Region {
      * @return The cell
      */
     protected Cell object2cell(TiledMapReader.MapObject object) {
-        return new Cell(object.y / tileHeight, object.x / tileWidth);
+        return new Cell(
+            Math.floorDiv(object.y, tileHeight) - rowOrigin,
+            Math.floorDiv(object.x, tileWidth) - colOrigin);
     }
 }
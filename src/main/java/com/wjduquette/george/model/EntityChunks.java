@@ -0,0 +1,287 @@
+package com.wjduquette.george.model;
+
+import com.wjduquette.george.ecs.Entity;
+import com.wjduquette.george.ecs.EntityTable;
+import com.wjduquette.george.ecs.Loc;
+import com.wjduquette.george.ecs.Player;
+import com.wjduquette.george.ecs.VisualEffect;
+
+import java.io.*;
+import java.util.*;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * EntityChunks loads and unloads a region's entities a chunk at a time,
+ * as the players move, so that a large region, e.g., one built from an
+ * infinite map, needn't keep all of its entities in memory.  The region
+ * is divided into chunks of SIZE x SIZE cells, aligned with the map's
+ * coordinates.  When a player enters a chunk, the chunks within
+ * LOAD_RADIUS of it are loaded; chunks more than UNLOAD_RADIUS from every
+ * player are unloaded.
+ *
+ * <p>The first time a chunk is loaded its entities are created by the
+ * region's Loader, e.g., from the map's objects.  When a chunk is
+ * unloaded its entities, other than players and visual effects, are
+ * removed from the entity table and stashed in serialized form; when it
+ * is loaded again they are restored as they were.</p>
+ *
+ * <p>Until a chunk is loaded its entities are simply absent, e.g., doors
+ * in distant chunks don't affect route planning.  The Executor checks each
+ * step of a route as it is taken.</p>
+ */
+public class EntityChunks {
+    //-------------------------------------------------------------------------
+    // Constants
+
+    /** The size of a chunk, in cells. */
+    public static final int SIZE = 16;
+
+    /** Chunks within this many chunks of a player are loaded. */
+    public static final int LOAD_RADIUS = 2;
+
+    /** Chunks further than this many chunks from every player are
+     * unloaded. */
+    public static final int UNLOAD_RADIUS = 3;
+
+    //-------------------------------------------------------------------------
+    // Nested Types
+
+    /** Creates the entities in a chunk the first time it is loaded. */
+    public interface Loader {
+        /**
+         * Creates the chunk's entities, adding them to the region's
+         * entity table.  The bounds are in region cells, and might extend
+         * past the edges of the region.
+         * @param key The chunk's key (see keyOf())
+         * @param rowMin The first row
+         * @param colMin The first column
+         * @param rowMax One past the last row
+         * @param colMax One past the last column
+         */
+        void load(long key, int rowMin, int colMin, int rowMax, int colMax);
+    }
+
+    /**
+     * The chunks' mutable state, for hibernation: which chunks are loaded,
+     * and the stashed entities of those that have been unloaded.  A chunk
+     * that is in neither has never been loaded.
+     */
+    public static class State implements Serializable {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final Set<Long> loaded = new HashSet<>();
+        private final Map<Long, byte[]> stashed = new HashMap<>();
+    }
+
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The region's entities
+    private final EntityTable entities;
+
+    // The map coordinates of region cell (0,0)
+    private final int rowOrigin;
+    private final int colOrigin;
+
+    // Creates chunks' entities on first load.
+    private final Loader loader;
+
+    // The chunks' state
+    private State state = new State();
+
+    // The key of the chunk each player was last seen in, by ID.
+    private final Map<Long, Long> playerChunks = new HashMap<>();
+
+    //-------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Creates the chunks for the region's entities, and loads the chunks
+     * around any players already present.
+     * @param entities The region's entity table
+     * @param rowOrigin The map row of region cell (0,0)
+     * @param colOrigin The map column of region cell (0,0)
+     * @param loader Creates each chunk's entities on first load
+     */
+    public EntityChunks(
+        EntityTable entities,
+        int rowOrigin,
+        int colOrigin,
+        Loader loader)
+    {
+        this.entities = entities;
+        this.rowOrigin = rowOrigin;
+        this.colOrigin = colOrigin;
+        this.loader = loader;
+
+        entities.query(Player.class).toList().forEach(this::playerMoved);
+
+        entities.addListener(new EntityTable.Listener() {
+            @Override public void entityAdded(Entity entity) {
+                playerMoved(entity);
+            }
+
+            @Override public void entityRemoved(Entity entity) {
+                playerChunks.remove(entity.id());
+            }
+
+            @Override public void entityChanged(Entity entity, Class<?> component) {
+                if (component == Loc.class || component == Player.class) {
+                    playerMoved(entity);
+                }
+            }
+        });
+    }
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /**
+     * Gets the key of the chunk containing the given map coordinates.
+     * @param row The map row
+     * @param col The map column
+     * @return The key
+     */
+    public static long keyOf(int row, int col) {
+        return ((long)Math.floorDiv(row, SIZE) << 32)
+            | (Math.floorDiv(col, SIZE) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Gets the number of chunks currently loaded.
+     * @return The number
+     */
+    public int loadedCount() {
+        return state.loaded.size();
+    }
+
+    /**
+     * Gets the chunks' state, for hibernation.  Entities in loaded chunks
+     * are part of the region's entity table, and are not included.
+     * @return The state
+     */
+    public State state() {
+        return state;
+    }
+
+    /**
+     * Restores the chunks' state, as saved by state().  This should be
+     * done before the entities of the loaded chunks are restored to the
+     * entity table, so that adding the players doesn't load their chunks
+     * again.
+     * @param state The state
+     */
+    public void restore(State state) {
+        this.state = state;
+        playerChunks.clear();
+    }
+
+    //-------------------------------------------------------------------------
+    // Helpers
+
+    // Updates the loaded chunks if a player has moved into a new chunk.
+    private void playerMoved(Entity entity) {
+        if (entity.player() == null || entity.loc() == null) {
+            return;
+        }
+
+        var cell = entity.cell();
+        var key = keyOf(cell.row() + rowOrigin, cell.col() + colOrigin);
+
+        if (!Objects.equals(playerChunks.put(entity.id(), key), key)) {
+            update();
+        }
+    }
+
+    // Loads the chunks near the players, and unloads those far from them.
+    private void update() {
+        // FIRST, load the chunks near each player.
+        for (var key : List.copyOf(playerChunks.values())) {
+            var row = (int)(key >> 32);
+            var col = (int)(long)key;
+
+            for (int r = row - LOAD_RADIUS; r <= row + LOAD_RADIUS; r++) {
+                for (int c = col - LOAD_RADIUS; c <= col + LOAD_RADIUS; c++) {
+                    load(((long)r << 32) | (c & 0xFFFFFFFFL));
+                }
+            }
+        }
+
+        // NEXT, unload the chunks far from every player.
+        for (var key : List.copyOf(state.loaded)) {
+            if (playerChunks.values().stream()
+                .allMatch(p -> distance(key, p) > UNLOAD_RADIUS))
+            {
+                unload(key);
+            }
+        }
+    }
+
+    // Loads the chunk if it isn't loaded already.
+    private void load(long key) {
+        if (!state.loaded.add(key)) {
+            return;
+        }
+
+        var bytes = state.stashed.remove(key);
+
+        if (bytes == null) {
+            var row = (int)(key >> 32) * SIZE - rowOrigin;
+            var col = (int)key * SIZE - colOrigin;
+            loader.load(key, row, col, row + SIZE, col + SIZE);
+        } else {
+            restoreEntities(bytes).forEach(entities::add);
+        }
+    }
+
+    // Unloads the chunk, stashing its entities.
+    private void unload(long key) {
+        var row = (int)(key >> 32) * SIZE - rowOrigin;
+        var col = (int)key * SIZE - colOrigin;
+        var list = entities.queryWithin(row, col, row + SIZE, col + SIZE)
+            .filter(e -> e.player() == null)
+            .filter(e -> e.find(VisualEffect.class).isEmpty())
+            .toList();
+
+        state.stashed.put(key, stashEntities(list));
+        state.loaded.remove(key);
+        list.forEach(e -> entities.remove(e.id()));
+    }
+
+    // Gets the distance between two chunks, in chunks.
+    private static int distance(long a, long b) {
+        return Math.max(
+            Math.abs((int)(a >> 32) - (int)(b >> 32)),
+            Math.abs((int)a - (int)b));
+    }
+
+    private static byte[] stashEntities(List<Entity> list) {
+        var buffer = new ByteArrayOutputStream();
+
+        try (var out = new ObjectOutputStream(new GZIPOutputStream(buffer))) {
+            out.writeObject(new ArrayList<>(list));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        return buffer.toByteArray();
+    }
+
+    private static List<Entity> restoreEntities(byte[] bytes) {
+        try (var in = new ObjectInputStream(
+            new GZIPInputStream(new ByteArrayInputStream(bytes))))
+        {
+            var list = new ArrayList<Entity>();
+            for (var e : (List<?>)in.readObject()) {
+                list.add((Entity)e);
+            }
+            return list;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
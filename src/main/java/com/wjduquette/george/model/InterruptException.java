@@ -2,7 +2,12 @@ package com.wjduquette.george.model;
 
 import com.wjduquette.george.model.Interrupt;
 
+import java.io.Serial;
+
 public class InterruptException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private final Interrupt interrupt;
     public InterruptException(Interrupt interrupt) {
         super(interrupt.toString());
@@ -2,14 +2,19 @@ package com.wjduquette.george.model;
 
 import com.wjduquette.george.App;
 import com.wjduquette.george.ecs.*;
+import com.wjduquette.george.graphics.Minimap;
+import com.wjduquette.george.graphics.TerrainLayerCache;
 import com.wjduquette.george.graphics.TerrainTileSet;
 import com.wjduquette.george.util.AStar;
 import com.wjduquette.george.util.KeyDataTable;
 
+import java.io.*;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
 
 /**
  * A Region is an area in the game with its own terrain and entities, which
@@ -107,17 +112,37 @@ public abstract class Region {
     protected int height = 0;
     protected int width = 0;
 
-    // The Terrain List: The terrain tiles, in row major order, drawn
-    // from the terrainTileSet to match the TiledMap's TERRAIN_LAYER.
-    protected final ArrayList<TerrainTile> terrain = new ArrayList<>();
+    // The Terrain Layer: the Tiled GIDs of the terrain tiles, where GID n
+    // is terrainTileSet tile n - 1 and 0 is no tile.  For compiled maps
+    // the GIDs are read in place from the (possibly memory-mapped) map
+    // file, so that large maps are paged in on demand.
+    protected TileLayer terrain = TileLayer.EMPTY;
 
-    // The Seen List: true if the tile has been seen by the player, and false
-    // otherwise.
-    protected final ArrayList<Boolean> seen = new ArrayList<>();
+    // The Features Layer: the GIDs of the static feature tiles, e.g.,
+    // walls, as for the terrain layer.  Interactive features, e.g.,
+    // doors, are entities instead and have no GID here; they overlay the
+    // static features.
+    protected TileLayer features = TileLayer.EMPTY;
+
+    // The Seen Layer: the cells the player has seen, stored sparsely.
+    protected SeenLayer seen = new SeenLayer();
 
     // The Entities Table
     protected final EntityTable entities = new EntityTable();
 
+    // The entity chunks, if the region's entities are loaded a chunk at
+    // a time, or null.
+    protected EntityChunks entityChunks = null;
+
+    // The pre-rendered terrain layer, created on demand.
+    private TerrainLayerCache terrainCache = null;
+
+    // The minimap image, created on demand.
+    private Minimap minimap = null;
+
+    // The tripwire index, created on demand.
+    private TriggerIndex triggers = null;
+
     //-------------------------------------------------------------------------
     // Constructor
 
@@ -192,6 +217,40 @@ public abstract class Region {
         return terrainTileSet;
     }
 
+    /**
+     * Gets the cache of pre-rendered terrain images for this region,
+     * creating it if need be.
+     * @return The cache
+     */
+    public TerrainLayerCache terrainCache() {
+        if (terrainCache == null) {
+            terrainCache = new TerrainLayerCache(this);
+        }
+        return terrainCache;
+    }
+
+    /**
+     * Gets the region's minimap, creating it if need be.
+     * @return The minimap
+     */
+    public Minimap minimap() {
+        if (minimap == null) {
+            minimap = new Minimap(this);
+        }
+        return minimap;
+    }
+
+    /**
+     * Gets the region's tripwire index, creating it if need be.
+     * @return The index
+     */
+    public TriggerIndex triggers() {
+        if (triggers == null) {
+            triggers = new TriggerIndex(entities);
+        }
+        return triggers;
+    }
+
     public Entity get(long id) {
         var e = entities.get(id);
         if (e == null) {
@@ -213,6 +272,24 @@ public abstract class Region {
         return entities.query(classes);
     }
 
+    /**
+     * Query the entities table for entities with matching components
+     * whose cells are within the given bounds.
+     * @param rowMin The first row
+     * @param colMin The first column
+     * @param rowMax One past the last row
+     * @param colMax One past the last column
+     * @param classes A list of component classes to match
+     * @return The stream of found entities.
+     */
+    public Stream<Entity> queryWithin(
+        int rowMin, int colMin,
+        int rowMax, int colMax,
+        Class<?>... classes)
+    {
+        return entities.queryWithin(rowMin, colMin, rowMax, colMax, classes);
+    }
+
     /**
      * Query the entities table for entities with matching components.
      * @param classes A list of component classes to match
@@ -251,9 +328,38 @@ public abstract class Region {
     public TerrainTile getTerrain(int row, int col) {
         if (row < 0 || row >= height || col < 0 || col >= width) {
             return null;
-        } else {
-            return terrain.get(row * width + col);
         }
+
+        var tileIndex = terrain.gid(row, col) - 1;
+
+        return tileIndex >= 0 ? terrainTileSet.get(tileIndex) : null;
+    }
+
+    /**
+     * Get the static feature tile at the given row and column.  Interactive
+     * features are entities, and are not included.
+     * @param row The row index, 0 to height - 1
+     * @param col The column index, 0 to width - 1
+     * @return The feature tile or null if there is none, or if the
+     * coordinates are out of bounds.
+     */
+    public TerrainTile getFeature(int row, int col) {
+        if (row < 0 || row >= height || col < 0 || col >= width) {
+            return null;
+        }
+
+        var tileIndex = features.gid(row, col) - 1;
+
+        return tileIndex >= 0 ? terrainTileSet.get(tileIndex) : null;
+    }
+
+    /**
+     * Get the static feature tile for the given cell.
+     * @param cell The cell
+     * @return The feature tile, or null if none.
+     */
+    public TerrainTile getFeature(Cell cell) {
+        return getFeature(cell.row(), cell.col());
     }
 
     /**
@@ -266,7 +372,7 @@ public abstract class Region {
         if (row < 0 || row >= height || col < 0 || col >= width) {
             return false;
         } else {
-            return seen.get(row * width + col);
+            return seen.isSeen(row, col);
         }
     }
 
@@ -279,6 +385,14 @@ public abstract class Region {
         return isSeen(cell.row(), cell.col());
     }
 
+    /**
+     * Gets the cells that have been seen, in no particular order.
+     * @return The list
+     */
+    public List<Cell> seenCells() {
+        return seen.cells();
+    }
+
     /**
      * Marks a cell seen.
      * @param row The row
@@ -286,7 +400,9 @@ public abstract class Region {
      */
     public void markSeen(int row, int col) {
         if (row >= 0 && row < height && col >= 0 && col < width) {
-            seen.set(row * width + col, true);
+            if (seen.markSeen(row, col) && minimap != null) {
+                minimap.markDirty(row, col);
+            }
         }
     }
 
@@ -316,24 +432,33 @@ public abstract class Region {
 
     /**
      * Gets the terrain type at the cell, taking features into account.
-     * TODO: This can be more efficient.
      * @param cell The cell
      * @return The terrain type.
      */
     public TerrainType getTerrainType(Cell cell) {
-        TerrainType type = entities.query(Feature.class)
-            .filter(e -> e.isAt(cell))
+        TerrainType type = entities.findAt(cell, Feature.class)
             .map(Entity::terrainType)
-            .findFirst()
             .orElse(TerrainType.NONE);
 
-        if (type != TerrainType.NONE) {
-            return type;
-        } else {
-            TerrainTile tile = getTerrain(cell);
+        return type != TerrainType.NONE ? type : getStaticTerrainType(cell);
+    }
 
-            return tile != null ? tile.type() : TerrainType.UNKNOWN;
+    /**
+     * Gets the terrain type at the cell, taking static features into
+     * account but ignoring feature entities.
+     * @param cell The cell
+     * @return The terrain type.
+     */
+    public TerrainType getStaticTerrainType(Cell cell) {
+        TerrainTile feature = getFeature(cell);
+
+        if (feature != null && feature.type() != TerrainType.NONE) {
+            return feature.type();
         }
+
+        TerrainTile tile = getTerrain(cell);
+
+        return tile != null ? tile.type() : TerrainType.UNKNOWN;
     }
 
     /**
@@ -406,6 +531,12 @@ public abstract class Region {
             return "You see: " + feature.get().label().text();
         }
 
+        var featureTile = getFeature(cell);
+
+        if (featureTile != null) {
+            return "You see: " + featureTile.description();
+        }
+
         var tile = getTerrain(cell);
         return "You see: " + tile.description();
     }
@@ -437,7 +568,7 @@ public abstract class Region {
      */
     public boolean isPassable(Entity mob, Cell cell) {
         // FIRST, if there's a mobile blocking the cell, he can't enter.
-        if (query(Mobile.class).anyMatch(m -> m.isAt(cell))) {
+        if (findAt(cell, Mobile.class).isPresent()) {
             return false;
         }
 
@@ -499,6 +630,67 @@ public abstract class Region {
         return true;
     }
 
+    //-------------------------------------------------------------------------
+    // Hibernation
+
+    /**
+     * Saves the region's mutable state, i.e., its entities, its seen
+     * layer, and the state of its entity chunks, if any, in a compact form.
+     * Visual effects are transient, and are omitted.  The state can be restored into a freshly loaded copy of the
+     * region by rehydrate().
+     * @return The hibernated state
+     */
+    public byte[] hibernate() {
+        var list = new ArrayList<Entity>();
+        entities.stream()
+            .filter(e -> e.find(VisualEffect.class).isEmpty())
+            .forEach(list::add);
+
+        var buffer = new ByteArrayOutputStream();
+
+        try (var out = new ObjectOutputStream(new GZIPOutputStream(buffer))) {
+            out.writeObject(list);
+            out.writeObject(seen);
+            out.writeObject(entityChunks != null ? entityChunks.state() : null);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+
+        return buffer.toByteArray();
+    }
+
+    /**
+     * Replaces the region's mutable state with state saved by hibernate().
+     * This is intended to be called on a freshly loaded copy of the region.
+     * @param state The hibernated state
+     */
+    public void rehydrate(byte[] state) {
+        List<?> list;
+        SeenLayer layer;
+        EntityChunks.State chunkState;
+
+        try (var in = new ObjectInputStream(
+            new GZIPInputStream(new ByteArrayInputStream(state))))
+        {
+            list = (List<?>)in.readObject();
+            layer = (SeenLayer)in.readObject();
+            chunkState = (EntityChunks.State)in.readObject();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException(ex);
+        }
+
+        entities.clear();
+
+        if (entityChunks != null && chunkState != null) {
+            entityChunks.restore(chunkState);
+        }
+
+        list.forEach(e -> entities.add((Entity)e));
+        seen = layer;
+    }
+
     //-------------------------------------------------------------------------
     // Entity Factories
 
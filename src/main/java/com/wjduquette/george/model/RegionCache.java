@@ -0,0 +1,163 @@
+package com.wjduquette.george.model;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A RegionCache manages which regions are resident in memory.  At most
+ * a budgeted number of regions are resident at once.  When the budget is
+ * exceeded, regions that have not been visited since they were loaded,
+ * e.g., preloaded neighbors, are evicted first, oldest first; their state
+ * is as loaded, so they are simply dropped.  After that, the least
+ * recently visited region other than the current region is hibernated
+ * (see Region.hibernate()) and evicted.  When a hibernated region is
+ * needed again, it is loaded afresh and its hibernated state restored.
+ *
+ * <p>The cache is used on the FX thread, except that hibernatedState()
+ * may be called from region loader threads.</p>
+ */
+public class RegionCache {
+    //-------------------------------------------------------------------------
+    // Constants
+
+    /** The default number of resident regions. */
+    public static final int DEFAULT_BUDGET = 4;
+
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The maximum number of resident regions
+    private final int budget;
+
+    // The resident regions, by name, in order of loading.
+    private final Map<String, Region> resident = new LinkedHashMap<>();
+
+    // The names of the resident regions visited since they were loaded,
+    // in least-recently-visited order.
+    private final Set<String> visited = new LinkedHashSet<>();
+
+    // The hibernated state of evicted regions, by name.
+    private final Map<String, byte[]> hibernated = new ConcurrentHashMap<>();
+
+    // The name of the current region, which is never evicted.
+    private String current = null;
+
+    //-------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Creates a cache with the default budget.
+     */
+    public RegionCache() {
+        this(DEFAULT_BUDGET);
+    }
+
+    /**
+     * Creates a cache.
+     * @param budget The maximum number of resident regions, at least 1.
+     */
+    public RegionCache(int budget) {
+        if (budget < 1) {
+            throw new IllegalArgumentException("Invalid budget: " + budget);
+        }
+        this.budget = budget;
+    }
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /**
+     * Gets a resident region.
+     * @param name The region's name
+     * @return The region, or null if it isn't resident.
+     */
+    public Region get(String name) {
+        return resident.get(name);
+    }
+
+    /**
+     * Makes a newly loaded region resident, evicting other regions as
+     * needed.  The region counts as unvisited until visit() is called, and
+     * so does not displace visited regions; it might even be evicted at
+     * once.  Any hibernated state for the region is retained until then.
+     * @param name The region's name
+     * @param region The region
+     */
+    public void put(String name, Region region) {
+        resident.put(name, region);
+        visited.remove(name);
+        evict();
+    }
+
+    /**
+     * Notes that the party has entered the region, making it resident if
+     * need be.  It becomes the current and most recently visited region,
+     * and any hibernated state for it is discarded, as it is presumed to
+     * have been restored.
+     * @param name The region's name
+     * @param region The region
+     */
+    public void visit(String name, Region region) {
+        resident.put(name, region);
+        visited.remove(name);
+        visited.add(name);
+        hibernated.remove(name);
+        current = name;
+        evict();
+    }
+
+    /**
+     * Gets the hibernated state of an evicted region, to be restored
+     * into a freshly loaded copy.
+     * @param name The region's name
+     * @return The state, if any
+     */
+    public Optional<byte[]> hibernatedState(String name) {
+        return Optional.ofNullable(hibernated.get(name));
+    }
+
+    /**
+     * Gets the number of resident regions.
+     * @return The number
+     */
+    public int residentCount() {
+        return resident.size();
+    }
+
+    /**
+     * Gets the number of hibernated regions.
+     * @return The number
+     */
+    public int hibernatedCount() {
+        return hibernated.size();
+    }
+
+    //-------------------------------------------------------------------------
+    // Helpers
+
+    // Evicts regions until the budget is met, sparing the current region.
+    private void evict() {
+        // FIRST, drop the unvisited regions, oldest first.
+        var loaded = resident.keySet().iterator();
+
+        while (resident.size() > budget && loaded.hasNext()) {
+            var name = loaded.next();
+
+            if (!visited.contains(name) && !name.equals(current)) {
+                loaded.remove();
+            }
+        }
+
+        // NEXT, hibernate the least recently visited regions.
+        var lru = visited.iterator();
+
+        while (resident.size() > budget && lru.hasNext()) {
+            var name = lru.next();
+
+            if (!name.equals(current)) {
+                hibernated.put(name, resident.remove(name).hibernate());
+                lru.remove();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.wjduquette.george.model;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A SeenLayer records which of a region's cells the player has seen.  It
+ * is stored sparsely, as a bitmap per 16x16 chunk of cells; a chunk is
+ * allocated the first time a cell within it is seen.  Thus its size
+ * depends on the area explored rather than the size of the map, which
+ * matters for infinite maps.
+ */
+public class SeenLayer implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    //-------------------------------------------------------------------------
+    // Constants
+
+    // Chunks are 2^SHIFT cells on a side.
+    private static final int SHIFT = 4;
+    private static final int SIZE = 1 << SHIFT;
+    private static final int MASK = SIZE - 1;
+
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The bitmaps of the chunks containing seen cells, by chunk key.
+    private final Map<Long, long[]> chunks = new HashMap<>();
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /**
+     * Determines whether the cell has been seen.
+     * @param row The row
+     * @param col The column
+     * @return true or false
+     */
+    public boolean isSeen(int row, int col) {
+        var bits = chunks.get(keyOf(row, col));
+        var bit = bitOf(row, col);
+
+        return bits != null && (bits[bit >> 6] & (1L << bit)) != 0;
+    }
+
+    /**
+     * Marks the cell seen.
+     * @param row The row
+     * @param col The column
+     * @return true if the cell had not been seen before, and false
+     * otherwise.
+     */
+    public boolean markSeen(int row, int col) {
+        var bits = chunks.computeIfAbsent(keyOf(row, col),
+            k -> new long[SIZE * SIZE / 64]);
+        var bit = bitOf(row, col);
+        var mask = 1L << bit;
+
+        if ((bits[bit >> 6] & mask) != 0) {
+            return false;
+        }
+
+        bits[bit >> 6] |= mask;
+        return true;
+    }
+
+    /**
+     * Gets the cells that have been seen, in no particular order.
+     * @return The list
+     */
+    public List<Cell> cells() {
+        var result = new ArrayList<Cell>();
+
+        chunks.forEach((key, bits) -> {
+            var row0 = (int)(key >> 32) << SHIFT;
+            var col0 = (int)(long)key << SHIFT;
+
+            for (int bit = 0; bit < SIZE * SIZE; bit++) {
+                if ((bits[bit >> 6] & (1L << bit)) != 0) {
+                    result.add(new Cell(row0 + (bit >> SHIFT),
+                        col0 + (bit & MASK)));
+                }
+            }
+        });
+
+        return result;
+    }
+
+    //-------------------------------------------------------------------------
+    // Helpers
+
+    // Gets the key of the chunk containing the cell.
+    private static long keyOf(int row, int col) {
+        return ((long)(row >> SHIFT) << 32) | ((col >> SHIFT) & 0xFFFFFFFFL);
+    }
+
+    // Gets the index of the cell's bit within its chunk.
+    private static int bitOf(int row, int col) {
+        return ((row & MASK) << SHIFT) | (col & MASK);
+    }
+}
@@ -1,9 +1,11 @@
 package com.wjduquette.george.model;
 
+import java.io.Serializable;
+
 /**
  * Steps that can be scheduled for Mobiles.
  */
-public sealed interface Step {
+public sealed interface Step extends Serializable {
     /**
      * Indicates whether this step is a transition or not.
      * A transition is a step that simply waits for a transition animation to
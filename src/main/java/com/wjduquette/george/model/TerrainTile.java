@@ -1,6 +1,7 @@
 package com.wjduquette.george.model;
 
 import com.wjduquette.george.graphics.ImageInfo;
+import javafx.geometry.Rectangle2D;
 import javafx.scene.image.Image;
 
 /**
@@ -9,12 +10,14 @@ import javafx.scene.image.Image;
  * @param name        The name by which it's known in the tile set.
  * @param description The descriptive text
  * @param type        The terrain type
- * @param image       The actual image.
+ * @param sheet       The tile set image containing the tile.
+ * @param bounds      The tile's bounds within the sheet.
  */
 public record TerrainTile(
     String name,
     TerrainType type,
     String description,
-    Image image
+    Image sheet,
+    Rectangle2D bounds
 ) implements ImageInfo {
 }
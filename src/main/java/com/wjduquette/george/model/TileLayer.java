@@ -0,0 +1,33 @@
+package com.wjduquette.george.model;
+
+import java.nio.IntBuffer;
+
+/**
+ * A TileLayer gives the Tiled GID of the tile in each cell of one of a
+ * region's tile layers.  GID n is tile n - 1 in the region's terrain tile
+ * set; GID 0 means there is no tile.  Implementations may hold the
+ * whole layer at once, or load it piecemeal on demand.
+ */
+@FunctionalInterface
+public interface TileLayer {
+    /** A layer with no tiles at all. */
+    TileLayer EMPTY = (row, col) -> 0;
+
+    /**
+     * Gets the GID for the cell, which must be within the region.
+     * @param row The row
+     * @param col The column
+     * @return The GID, or 0 for no tile.
+     */
+    int gid(int row, int col);
+
+    /**
+     * Returns a layer backed by a buffer of GIDs in row-major order.
+     * @param gids The GIDs
+     * @param width The width of the layer in cells
+     * @return The layer
+     */
+    static TileLayer of(IntBuffer gids, int width) {
+        return (row, col) -> gids.get(row * width + col);
+    }
+}
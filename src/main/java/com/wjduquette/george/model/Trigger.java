@@ -1,6 +1,8 @@
 package com.wjduquette.george.model;
 
-public sealed interface Trigger {
+import java.io.Serializable;
+
+public sealed interface Trigger extends Serializable {
 
     /**
      * Triggers when a Player first moves within the given radius of the entity
@@ -0,0 +1,239 @@
+package com.wjduquette.george.model;
+
+import com.wjduquette.george.ecs.Door;
+import com.wjduquette.george.ecs.Entity;
+import com.wjduquette.george.ecs.EntityTable;
+import com.wjduquette.george.ecs.Loc;
+import com.wjduquette.george.ecs.Player;
+import com.wjduquette.george.ecs.Terrain;
+import com.wjduquette.george.ecs.Tripwire;
+
+import java.util.*;
+
+/**
+ * A TriggerIndex is a spatial index of a region's tripwires.  Each
+ * tripwire registers interest in the cells its trigger watches, e.g., the
+ * cells within a RadiusOnce trigger's radius.  The index listens to the
+ * region's entity table; when a player enters a new cell, the tripwires
+ * watching that cell are "armed", and only armed tripwires need be checked
+ * by the Monitor.  A tripwire's route to the player can also change while
+ * the player stands still, e.g., when a door opens; so changes to the
+ * terrain of a watched cell arm its tripwires as well.  When nothing
+ * relevant changes, no tripwire is checked at all.
+ */
+public class TriggerIndex {
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The region's entities
+    private final EntityTable entities;
+
+    // The IDs of the tripwires watching each cell.
+    private final Map<Cell, Set<Long>> watchers = new HashMap<>();
+
+    // The cells watched by each tripwire, by ID.
+    private final Map<Long, List<Cell>> watched = new HashMap<>();
+
+    // The cell each player was last seen in, by ID.
+    private final Map<Long, Cell> playerCells = new HashMap<>();
+
+    // The IDs of the armed tripwires, in order of arming.
+    private final Set<Long> armed = new LinkedHashSet<>();
+
+    //-------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Creates the index for the region's entities, indexing the existing
+     * tripwires and players.
+     * @param entities The region's entity table
+     */
+    public TriggerIndex(EntityTable entities) {
+        this.entities = entities;
+
+        // FIRST, index the tripwires before the players, so that players
+        // already within a tripwire's area arm it.
+        entities.query(Tripwire.class).forEach(this::register);
+        entities.query(Player.class).forEach(this::playerMoved);
+
+        // NEXT, keep up to date.
+        entities.addListener(new EntityTable.Listener() {
+            @Override public void entityAdded(Entity entity) {
+                register(entity);
+                playerMoved(entity);
+                terrainChanged(entity);
+            }
+
+            @Override public void entityRemoved(Entity entity) {
+                unregister(entity.id());
+                playerCells.remove(entity.id());
+                terrainChanged(entity);
+            }
+
+            @Override public void entityChanged(Entity entity, Class<?> component) {
+                if (component == Tripwire.class) {
+                    register(entity);
+                } else if (component == Loc.class) {
+                    if (entity.tripwire() != null) {
+                        register(entity);
+                    }
+                    playerMoved(entity);
+                } else if (component == Player.class) {
+                    playerMoved(entity);
+                } else if (component == Door.class ||
+                    component == Terrain.class)
+                {
+                    terrainChanged(entity);
+                }
+            }
+        });
+    }
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /**
+     * Removes and returns the armed tripwires, in order of arming.
+     * The caller should check each one, and re-arm any that could not be
+     * checked.
+     * @return The tripwire entities
+     */
+    public List<Entity> takeArmed() {
+        if (armed.isEmpty()) {
+            return List.of();
+        }
+
+        var result = new ArrayList<Entity>();
+
+        for (var id : armed) {
+            var wire = entities.get(id);
+
+            if (wire != null && wire.tripwire() != null) {
+                result.add(wire);
+            }
+        }
+
+        armed.clear();
+        return result;
+    }
+
+    /**
+     * Arms the tripwire, so that it is returned by the next takeArmed().
+     * @param wire The tripwire entity
+     */
+    public void arm(Entity wire) {
+        armed.add(wire.id());
+    }
+
+    /**
+     * Gets the number of tripwires in the index.
+     * @return The count
+     */
+    public int size() {
+        return watched.size();
+    }
+
+    //-------------------------------------------------------------------------
+    // Helpers
+
+    // Registers the tripwire's watched cells, replacing any previous
+    // registration.  Entities without tripwires are unregistered.
+    private void register(Entity entity) {
+        unregister(entity.id());
+
+        if (entity.tripwire() == null || entity.loc() == null) {
+            return;
+        }
+
+        var cells = watchedCells(entity.cell(), entity.tripwire().trigger());
+        watched.put(entity.id(), cells);
+
+        for (var cell : cells) {
+            watchers.computeIfAbsent(cell, c -> new HashSet<>())
+                .add(entity.id());
+        }
+
+        // Arm it if a player is already watched.
+        for (var cell : playerCells.values()) {
+            if (watchers.get(cell) != null &&
+                watchers.get(cell).contains(entity.id()))
+            {
+                armed.add(entity.id());
+            }
+        }
+    }
+
+    // Removes the tripwire from the index.
+    private void unregister(long id) {
+        var cells = watched.remove(id);
+
+        if (cells != null) {
+            for (var cell : cells) {
+                var ids = watchers.get(cell);
+                ids.remove(id);
+                if (ids.isEmpty()) {
+                    watchers.remove(cell);
+                }
+            }
+        }
+
+        armed.remove(id);
+    }
+
+    // Arms the tripwires watching the player's cell if the player has
+    // entered a new cell.  Ignores non-players.
+    private void playerMoved(Entity entity) {
+        if (entity.player() == null || entity.loc() == null) {
+            return;
+        }
+
+        var cell = entity.cell();
+
+        if (cell.equals(playerCells.put(entity.id(), cell))) {
+            return;
+        }
+
+        var ids = watchers.get(cell);
+
+        if (ids != null) {
+            armed.addAll(ids);
+        }
+    }
+
+    // Arms the tripwires watching the entity's cell if the entity affects
+    // the cell's terrain, e.g., a door.  Ignores other entities.
+    private void terrainChanged(Entity entity) {
+        if (entity.loc() == null ||
+            (entity.terrain() == null && entity.door() == null))
+        {
+            return;
+        }
+
+        var ids = watchers.get(entity.cell());
+
+        if (ids != null) {
+            armed.addAll(ids);
+        }
+    }
+
+    // Gets the cells the trigger watches for a tripwire at the given cell.
+    private static List<Cell> watchedCells(Cell origin, Trigger trigger) {
+        var cells = new ArrayList<Cell>();
+
+        switch (trigger) {
+            case Trigger.RadiusOnce t -> {
+                // A passable route of length radius can go no further than
+                // radius cells in any direction.
+                var radius = t.radius();
+
+                for (int r = -radius; r <= radius; r++) {
+                    for (int c = -radius; c <= radius; c++) {
+                        cells.add(new Cell(origin.row() + r, origin.col() + c));
+                    }
+                }
+            }
+        }
+
+        return cells;
+    }
+}
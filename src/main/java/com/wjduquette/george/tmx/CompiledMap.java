@@ -0,0 +1,415 @@
+package com.wjduquette.george.tmx;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import com.wjduquette.george.tmx.TiledMapReader.Chunk;
+import com.wjduquette.george.tmx.TiledMapReader.Layer;
+import com.wjduquette.george.tmx.TiledMapReader.MapObject;
+import com.wjduquette.george.tmx.TiledMapReader.ObjectHandler;
+import com.wjduquette.george.tmx.TiledMapReader.Property;
+
+/**
+ * Encodes and decodes tile maps in George's compiled binary map format.
+ * A compiled map contains exactly the data TiledMapReader loads from the
+ * Tiled JSON export, but can be decoded with a handful of bulk reads
+ * rather than a reflective JSON parse.  Compiled maps are produced from
+ * the JSON exports by TiledMapCompiler; TiledMapReader.read() prefers a
+ * compiled map when one is present.
+ *
+ * <p>The format is a sequence of big-endian 32-bit integers, except for
+ * the string table's bytes, which are padded to a multiple of four so
+ * that everything else, and the tile arrays in particular, are aligned:</p>
+ *
+ * <pre>
+ * header:   MAGIC VERSION sourceLength sourceCrc
+ * strings:  count { byteLength utf8Bytes padding }...
+ * map:      width height tilewidth tileheight infinite type version props
+ * props:    count { name type value }...
+ * layers:   count { name type props kind body }...
+ *   kind 0: startx starty width height length gid...
+ *   kind 1: count { name type x y width height props }...
+ *   kind 2: startx starty width height count { x y width height length gid... }...
+ * </pre>
+ *
+ * <p>The header records the length and CRC-32 of the JSON export the map
+ * was compiled from, so that a compiled map left over from an earlier
+ * build is never used in place of an edited export.  The build checks
+ * both; at load time only the length is checked, so that the export needn't
+ * be read.  See isCompiledFrom().</p>
+ *
+ * <p>Strings are stored once in the string table and referenced
+ * elsewhere by index; -1 is a null string.</p>
+ *
+ * <p>Tile layers are not copied when decoded; each layer's buffer is a view
+ * of its GIDs within the compiled map's buffer, which may be memory-mapped
+ * (see Resource.map).</p>
+ */
+public class CompiledMap {
+	private CompiledMap() {} // Not instantiable
+
+	/** The magic number: "GRMP" */
+	public static final int MAGIC = 0x47524D50;
+
+	/** The format version. */
+	public static final int VERSION = 3;
+
+	/** The file extension for compiled maps. */
+	public static final String EXTENSION = ".bin";
+
+	// Layer kinds
+	private static final int TILE_KIND = 0;
+	private static final int OBJECT_KIND = 1;
+	private static final int CHUNK_KIND = 2;
+
+	//-------------------------------------------------------------------------
+	// Encoding
+
+	/**
+	 * Encodes the map in the compiled format.
+	 * @param map The map
+	 * @param source The bytes of the JSON export the map was read from
+	 * @return The encoded bytes
+	 */
+	public static byte[] encode(TiledMapReader map, byte[] source) {
+		var strings = new StringTable();
+		var body = new IntWriter();
+
+		// FIRST, write the body, accumulating the strings.
+		body.put(map.width);
+		body.put(map.height);
+		body.put(map.tilewidth);
+		body.put(map.tileheight);
+		body.put(map.infinite ? 1 : 0);
+		body.put(strings.id(map.type));
+		body.put(strings.id(map.version));
+		putProperties(body, strings, map.properties());
+
+		body.put(map.layers().size());
+
+		for (Layer layer : map.layers()) {
+			body.put(strings.id(layer.name));
+			body.put(strings.id(layer.type));
+			putProperties(body, strings, layer.properties());
+
+			if (layer.type.equals(TiledMapReader.TILE_LAYER)) {
+				var chunked = layer.chunks != null;
+				body.put(chunked ? CHUNK_KIND : TILE_KIND);
+				body.put(layer.startx);
+				body.put(layer.starty);
+				body.put(layer.width);
+				body.put(layer.height);
+
+				if (chunked) {
+					body.put(layer.chunks.length);
+
+					for (var chunk : layer.chunks) {
+						body.put(chunk.x);
+						body.put(chunk.y);
+						body.put(chunk.width);
+						body.put(chunk.height);
+						putTiles(body, chunk.tiles());
+					}
+				} else {
+					putTiles(body, layer.tiles());
+				}
+			} else {
+				body.put(OBJECT_KIND);
+				body.put(layer.objects().size());
+
+				for (MapObject obj : layer.objects()) {
+					body.put(strings.id(obj.name));
+					body.put(strings.id(obj.type));
+					body.put(obj.x);
+					body.put(obj.y);
+					body.put(obj.width);
+					body.put(obj.height);
+					putProperties(body, strings, obj.properties());
+				}
+			}
+		}
+
+		// NEXT, assemble the file: the header, the string table, and then
+		// the body.
+		var out = new ByteArrayOutputStream();
+		var head = ByteBuffer.allocate(16);
+		head.putInt(MAGIC).putInt(VERSION)
+			.putInt(source.length).putInt(crc(source));
+		out.writeBytes(head.array());
+
+		var count = ByteBuffer.allocate(4);
+		count.putInt(strings.list.size());
+		out.writeBytes(count.array());
+
+		for (String s : strings.list) {
+			var bytes = s.getBytes(StandardCharsets.UTF_8);
+			var padded = ByteBuffer.allocate(4 + align(bytes.length));
+			padded.putInt(bytes.length).put(bytes);
+			out.writeBytes(padded.array());
+		}
+
+		out.writeBytes(body.toBytes());
+
+		return out.toByteArray();
+	}
+
+	// Computes the CRC-32 of the bytes.
+	private static int crc(byte[] bytes) {
+		var crc = new CRC32();
+		crc.update(bytes);
+		return (int)crc.getValue();
+	}
+
+	private static void putTiles(IntWriter body, IntBuffer tiles) {
+		body.put(tiles.remaining());
+		while (tiles.hasRemaining()) {
+			body.put(tiles.get());
+		}
+	}
+
+	private static void putProperties(
+		IntWriter body,
+		StringTable strings,
+		List<Property> props)
+	{
+		body.put(props.size());
+
+		for (Property p : props) {
+			body.put(strings.id(p.name));
+			body.put(strings.id(p.type));
+			body.put(strings.id(p.value));
+		}
+	}
+
+	//-------------------------------------------------------------------------
+	// Decoding
+
+	/**
+	 * Determines whether the buffer contains a compiled map of the current
+	 * version that was compiled from the given JSON export.  The buffer's
+	 * position is unchanged.
+	 * @param buf The buffer, positioned at the start of the map
+	 * @param source The bytes of the JSON export
+	 * @return true or false
+	 */
+	public static boolean isCompiledFrom(ByteBuffer buf, byte[] source) {
+		return isCompiledFrom(buf, source.length)
+			&& buf.getInt(buf.position() + 12) == crc(source);
+	}
+
+	/**
+	 * Determines whether the buffer contains a compiled map of the current
+	 * version that was compiled from a JSON export of the given length.
+	 * This is a cheap check for use at load time, when the export needn't
+	 * be read; the build ensures that the compiled map is otherwise up to
+	 * date.  The buffer's position is unchanged.
+	 * @param buf The buffer, positioned at the start of the map
+	 * @param sourceLength The length of the JSON export, in bytes
+	 * @return true or false
+	 */
+	public static boolean isCompiledFrom(ByteBuffer buf, long sourceLength) {
+		var pos = buf.position();
+
+		return buf.remaining() >= 16
+			&& buf.getInt(pos) == MAGIC
+			&& buf.getInt(pos + 4) == VERSION
+			&& buf.getInt(pos + 8) == sourceLength;
+	}
+
+	/**
+	 * Decodes a map in the compiled format.
+	 * @param buf The buffer, positioned at the start of the map
+	 * @return The map
+	 * @throws IllegalArgumentException if the data isn't a compiled map
+	 * of the current version.
+	 */
+	public static TiledMapReader decode(ByteBuffer buf) {
+		return decode(buf, null);
+	}
+
+	/**
+	 * Decodes a map in the compiled format, passing its objects to the
+	 * handler, if one is given, rather than collecting them in their
+	 * layers.
+	 * @param buf The buffer, positioned at the start of the map
+	 * @param handler The object handler, or null
+	 * @return The map
+	 * @throws IllegalArgumentException if the data isn't a compiled map
+	 * of the current version.
+	 */
+	public static TiledMapReader decode(ByteBuffer buf, ObjectHandler handler) {
+		// FIRST, check the header.
+		if (buf.getInt() != MAGIC) {
+			throw new IllegalArgumentException("not a compiled map");
+		}
+
+		var version = buf.getInt();
+		if (version != VERSION) {
+			throw new IllegalArgumentException(
+				"unsupported compiled map version: " + version);
+		}
+
+		// Skip the source length and CRC.
+		buf.getInt();
+		buf.getInt();
+
+		// NEXT, read the string table.
+		var strings = new String[buf.getInt()];
+
+		for (int i = 0; i < strings.length; i++) {
+			var bytes = new byte[buf.getInt()];
+			buf.get(bytes);
+			strings[i] = new String(bytes, StandardCharsets.UTF_8);
+			buf.position(buf.position() + align(bytes.length) - bytes.length);
+		}
+
+		// NEXT, read the map.
+		var map = new TiledMapReader();
+		map.width = buf.getInt();
+		map.height = buf.getInt();
+		map.tilewidth = buf.getInt();
+		map.tileheight = buf.getInt();
+		map.infinite = buf.getInt() != 0;
+		map.type = string(strings, buf.getInt());
+		map.version = string(strings, buf.getInt());
+		map.properties = getProperties(buf, strings);
+
+		map.layers = new Layer[buf.getInt()];
+
+		for (int i = 0; i < map.layers.length; i++) {
+			var layer = new Layer();
+			layer.name = string(strings, buf.getInt());
+			layer.type = string(strings, buf.getInt());
+			layer.properties = getProperties(buf, strings);
+
+			var kind = buf.getInt();
+
+			if (kind == TILE_KIND || kind == CHUNK_KIND) {
+				layer.startx = buf.getInt();
+				layer.starty = buf.getInt();
+				layer.width = buf.getInt();
+				layer.height = buf.getInt();
+			}
+
+			if (kind == TILE_KIND) {
+				layer.buffer = getTiles(buf);
+			} else if (kind == CHUNK_KIND) {
+				layer.chunks = new Chunk[buf.getInt()];
+
+				for (int j = 0; j < layer.chunks.length; j++) {
+					var chunk = new Chunk();
+					chunk.x = buf.getInt();
+					chunk.y = buf.getInt();
+					chunk.width = buf.getInt();
+					chunk.height = buf.getInt();
+					chunk.buffer = getTiles(buf);
+					layer.chunks[j] = chunk;
+				}
+			} else {
+				var count = buf.getInt();
+
+				if (handler == null) {
+					layer.objects = new MapObject[count];
+				}
+
+				for (int j = 0; j < count; j++) {
+					var obj = new MapObject();
+					obj.name = string(strings, buf.getInt());
+					obj.type = string(strings, buf.getInt());
+					obj.x = buf.getInt();
+					obj.y = buf.getInt();
+					obj.width = buf.getInt();
+					obj.height = buf.getInt();
+					obj.properties = getProperties(buf, strings);
+
+					if (handler != null) {
+						handler.object(map, layer, obj);
+					} else {
+						layer.objects[j] = obj;
+					}
+				}
+			}
+
+			map.layers[i] = layer;
+		}
+
+		return map;
+	}
+
+	// Gets a view of a tile array, in place, and skips over it.
+	private static IntBuffer getTiles(ByteBuffer buf) {
+		var length = buf.getInt();
+		var tiles = buf.slice(buf.position(), 4*length).asIntBuffer();
+		buf.position(buf.position() + 4*length);
+		return tiles;
+	}
+
+	private static Property[] getProperties(ByteBuffer buf, String[] strings) {
+		var props = new Property[buf.getInt()];
+
+		for (int i = 0; i < props.length; i++) {
+			var p = new Property();
+			p.name = string(strings, buf.getInt());
+			p.type = string(strings, buf.getInt());
+			p.value = string(strings, buf.getInt());
+			props[i] = p;
+		}
+
+		return props;
+	}
+
+	private static String string(String[] strings, int id) {
+		return id >= 0 ? strings[id] : null;
+	}
+
+	//-------------------------------------------------------------------------
+	// Helpers
+
+	// Rounds a byte count up to a multiple of four.
+	private static int align(int length) {
+		return (length + 3) & ~3;
+	}
+
+	// Interns strings, assigning each distinct string an index.
+	private static class StringTable {
+		private final List<String> list = new ArrayList<>();
+		private final Map<String,Integer> ids = new HashMap<>();
+
+		int id(String s) {
+			if (s == null) {
+				return -1;
+			}
+
+			return ids.computeIfAbsent(s, key -> {
+				list.add(key);
+				return list.size() - 1;
+			});
+		}
+	}
+
+	// A growable buffer of big-endian ints.
+	private static class IntWriter {
+		private int[] data = new int[1024];
+		private int size = 0;
+
+		void put(int value) {
+			if (size == data.length) {
+				data = java.util.Arrays.copyOf(data, 2*size);
+			}
+			data[size++] = value;
+		}
+
+		byte[] toBytes() {
+			var buf = ByteBuffer.allocate(4*size);
+			buf.asIntBuffer().put(data, 0, size);
+			return buf.array();
+		}
+	}
+}
@@ -0,0 +1,84 @@
+package com.wjduquette.george.tmx;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * A command-line tool that compiles Tiled JSON map exports into George's
+ * compiled map format (see CompiledMap).  Given one or more files or
+ * directories, it compiles each "*.json" file that contains a Tiled map,
+ * writing the result next to it with the ".bin" extension.  Other JSON
+ * files are skipped.
+ *
+ * <p>The build runs this over the compiled resources; it can also be run
+ * by hand:</p>
+ *
+ * <pre>
+ * java com.wjduquette.george.tmx.TiledMapCompiler path...
+ * </pre>
+ */
+public class TiledMapCompiler {
+	private TiledMapCompiler() {} // Not instantiable
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.err.println("Usage: TiledMapCompiler path...");
+			System.exit(1);
+		}
+
+		for (String arg : args) {
+			List<Path> files;
+
+			try (Stream<Path> paths = Files.walk(Path.of(arg))) {
+				files = paths
+					.filter(p -> p.toString().endsWith(".json"))
+					.toList();
+			}
+
+			for (Path file : files) {
+				compile(file);
+			}
+		}
+	}
+
+	/**
+	 * Compiles a single JSON file, if it contains a Tiled map.
+	 * @param file The file
+	 * @throws IOException on I/O error
+	 */
+	public static void compile(Path file) throws IOException {
+		var source = Files.readAllBytes(file);
+		var map = TiledMapParser.parse(new InputStreamReader(
+			new ByteArrayInputStream(source), StandardCharsets.UTF_8));
+
+		if (!"map".equals(map.type)) {
+			return;
+		}
+
+		var name = file.getFileName().toString();
+		var out = file.resolveSibling(
+			name.substring(0, name.length() - ".json".length())
+				+ CompiledMap.EXTENSION);
+
+		// Leave an up-to-date compiled map alone, but touch it so that
+		// it is no older than the JSON.
+		if (Files.exists(out) && CompiledMap.isCompiledFrom(
+			ByteBuffer.wrap(Files.readAllBytes(out)), source))
+		{
+			Files.setLastModifiedTime(out,
+				FileTime.fromMillis(System.currentTimeMillis()));
+			return;
+		}
+
+		Files.write(out, CompiledMap.encode(map, source));
+		System.out.println("Compiled " + file + " -> " + out);
+	}
+}
@@ -0,0 +1,346 @@
+package com.wjduquette.george.tmx;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.InflaterInputStream;
+
+import com.google.gson.stream.JsonReader;
+import com.google.gson.stream.JsonToken;
+import com.wjduquette.george.tmx.TiledMapReader.Chunk;
+import com.wjduquette.george.tmx.TiledMapReader.Layer;
+import com.wjduquette.george.tmx.TiledMapReader.MapObject;
+import com.wjduquette.george.tmx.TiledMapReader.ObjectHandler;
+import com.wjduquette.george.tmx.TiledMapReader.Property;
+
+/**
+ * A streaming parser for Tiled JSON map exports.  It reads the map a token
+ * at a time with Gson's JsonReader, rather than materializing the whole
+ * document as a string and binding it reflectively.  Tile layer data is
+ * decoded directly into int[] arrays, whether it is stored as a JSON
+ * array or as base64, optionally compressed with zlib or gzip.
+ *
+ * <p>Infinite maps are supported; their tile layers' chunks are decoded
+ * the same way.</p>
+ *
+ * <p>Objects in object groups can be passed to an ObjectHandler as they
+ * are parsed, so that they needn't all be held in memory at once.  If no
+ * handler is given, they are collected in their layers as usual.</p>
+ *
+ * <p>Tiled stores a tile's flip and rotation flags in the high three bits
+ * of its GID.  George doesn't flip tiles, so the flags are masked off as
+ * the GIDs are decoded, leaving the tile's GID.</p>
+ */
+public class TiledMapParser {
+	private TiledMapParser() {} // Not instantiable
+
+	// The GID bits that remain once Tiled's flip/rotate flags are removed.
+	private static final int GID_MASK = 0x1FFFFFFF;
+
+	//-------------------------------------------------------------------------
+	// Public Methods
+
+	/**
+	 * Parses a map, collecting its objects in their layers.
+	 * @param reader The JSON input
+	 * @return The map
+	 * @throws IOException on read error or malformed input
+	 */
+	public static TiledMapReader parse(Reader reader) throws IOException {
+		return parse(reader, null);
+	}
+
+	/**
+	 * Parses a map, passing its objects to the handler if one is given.
+	 * @param reader The JSON input
+	 * @param handler The object handler, or null
+	 * @return The map
+	 * @throws IOException on read error or malformed input
+	 */
+	public static TiledMapReader parse(Reader reader, ObjectHandler handler)
+		throws IOException
+	{
+		var json = new JsonReader(reader);
+		var map = new TiledMapReader();
+
+		json.beginObject();
+		while (json.hasNext()) {
+			switch (json.nextName()) {
+				case "type" -> map.type = json.nextString();
+				case "version" -> map.version = json.nextString();
+				case "height" -> map.height = json.nextInt();
+				case "width" -> map.width = json.nextInt();
+				case "tileheight" -> map.tileheight = json.nextInt();
+				case "tilewidth" -> map.tilewidth = json.nextInt();
+				case "infinite" -> map.infinite = json.nextBoolean();
+				case "layers" -> map.layers = readLayers(json, map, handler);
+				case "properties" -> map.properties = readProperties(json);
+				default -> json.skipValue();
+			}
+		}
+		json.endObject();
+
+		return map;
+	}
+
+	//-------------------------------------------------------------------------
+	// Helpers
+
+	private static Layer[] readLayers(
+		JsonReader json,
+		TiledMapReader map,
+		ObjectHandler handler) throws IOException
+	{
+		var layers = new ArrayList<Layer>();
+
+		json.beginArray();
+		while (json.hasNext()) {
+			layers.add(readLayer(json, map, handler));
+		}
+		json.endArray();
+
+		return layers.toArray(new Layer[0]);
+	}
+
+	private static Layer readLayer(
+		JsonReader json,
+		TiledMapReader map,
+		ObjectHandler handler) throws IOException
+	{
+		var layer = new Layer();
+		String base64 = null;
+		var chunkText = new ArrayList<String>();
+
+		json.beginObject();
+		while (json.hasNext()) {
+			switch (json.nextName()) {
+				case "name" -> layer.name = json.nextString();
+				case "type" -> layer.type = json.nextString();
+				case "encoding" -> layer.encoding = json.nextString();
+				case "compression" -> layer.compression = json.nextString();
+				case "startx" -> layer.startx = json.nextInt();
+				case "starty" -> layer.starty = json.nextInt();
+				case "width" -> layer.width = json.nextInt();
+				case "height" -> layer.height = json.nextInt();
+				case "chunks" -> layer.chunks = readChunks(json, chunkText);
+				case "properties" -> layer.properties = readProperties(json);
+				case "objects" ->
+					layer.objects = readObjects(json, map, layer, handler);
+				case "data" -> {
+					// The encoding might not have been seen yet, so go by
+					// the token.
+					if (json.peek() == JsonToken.STRING) {
+						base64 = json.nextString();
+					} else {
+						layer.data = readInts(json);
+					}
+				}
+				default -> json.skipValue();
+			}
+		}
+		json.endObject();
+
+		if (base64 != null) {
+			layer.data = decodeBase64(base64, layer.compression);
+		}
+
+		for (int i = 0; i < chunkText.size(); i++) {
+			if (chunkText.get(i) != null) {
+				layer.chunks[i].data =
+					decodeBase64(chunkText.get(i), layer.compression);
+			}
+		}
+
+		return layer;
+	}
+
+	// Reads an infinite map's chunks.  As the layer's compression might
+	// not have been seen yet, base64 data is saved in chunkText, by
+	// index, to be decoded later.
+	private static Chunk[] readChunks(
+		JsonReader json,
+		List<String> chunkText) throws IOException
+	{
+		var chunks = new ArrayList<Chunk>();
+
+		json.beginArray();
+		while (json.hasNext()) {
+			var chunk = new Chunk();
+			String base64 = null;
+
+			json.beginObject();
+			while (json.hasNext()) {
+				switch (json.nextName()) {
+					case "x" -> chunk.x = json.nextInt();
+					case "y" -> chunk.y = json.nextInt();
+					case "width" -> chunk.width = json.nextInt();
+					case "height" -> chunk.height = json.nextInt();
+					case "data" -> {
+						if (json.peek() == JsonToken.STRING) {
+							base64 = json.nextString();
+						} else {
+							chunk.data = readInts(json);
+						}
+					}
+					default -> json.skipValue();
+				}
+			}
+			json.endObject();
+
+			chunks.add(chunk);
+			chunkText.add(base64);
+		}
+		json.endArray();
+
+		return chunks.toArray(new Chunk[0]);
+	}
+
+	// Reads the objects, passing them to the handler, if any; the result
+	// is null if there is a handler.
+	private static MapObject[] readObjects(
+		JsonReader json,
+		TiledMapReader map,
+		Layer layer,
+		ObjectHandler handler) throws IOException
+	{
+		var objects = new ArrayList<MapObject>();
+
+		json.beginArray();
+		while (json.hasNext()) {
+			var obj = readObject(json);
+
+			if (handler != null) {
+				handler.object(map, layer, obj);
+			} else {
+				objects.add(obj);
+			}
+		}
+		json.endArray();
+
+		return handler != null ? null : objects.toArray(new MapObject[0]);
+	}
+
+	private static MapObject readObject(JsonReader json) throws IOException {
+		var obj = new MapObject();
+
+		json.beginObject();
+		while (json.hasNext()) {
+			switch (json.nextName()) {
+				case "name" -> obj.name = json.nextString();
+				case "type" -> obj.type = json.nextString();
+				case "x" -> obj.x = (int)json.nextDouble();
+				case "y" -> obj.y = (int)json.nextDouble();
+				case "width" -> obj.width = (int)json.nextDouble();
+				case "height" -> obj.height = (int)json.nextDouble();
+				case "properties" -> obj.properties = readProperties(json);
+				default -> json.skipValue();
+			}
+		}
+		json.endObject();
+
+		return obj;
+	}
+
+	private static Property[] readProperties(JsonReader json)
+		throws IOException
+	{
+		var props = new ArrayList<Property>();
+
+		json.beginArray();
+		while (json.hasNext()) {
+			var p = new Property();
+
+			json.beginObject();
+			while (json.hasNext()) {
+				switch (json.nextName()) {
+					case "name" -> p.name = json.nextString();
+					case "type" -> p.type = json.nextString();
+					case "value" -> p.value = readScalar(json);
+					default -> json.skipValue();
+				}
+			}
+			json.endObject();
+
+			props.add(p);
+		}
+		json.endArray();
+
+		return props.toArray(new Property[0]);
+	}
+
+	// Reads a scalar value as a string; other values are skipped.
+	private static String readScalar(JsonReader json) throws IOException {
+		return switch (json.peek()) {
+			case STRING, NUMBER -> json.nextString();
+			case BOOLEAN -> String.valueOf(json.nextBoolean());
+			default -> {
+				json.skipValue();
+				yield null;
+			}
+		};
+	}
+
+	// Reads an array of ints, growing the result as needed.
+	private static int[] readInts(JsonReader json) throws IOException {
+		var data = new int[1024];
+		var size = 0;
+
+		json.beginArray();
+		while (json.hasNext()) {
+			if (size == data.length) {
+				data = java.util.Arrays.copyOf(data, 2*size);
+			}
+			// GIDs are unsigned; the high bits are Tiled's flip flags.
+			data[size++] = (int)json.nextLong() & GID_MASK;
+		}
+		json.endArray();
+
+		return size == data.length ? data : java.util.Arrays.copyOf(data, size);
+	}
+
+	/**
+	 * Decodes base64 tile data, optionally compressed, into GIDs.  Each
+	 * GID is an unsigned little-endian 32-bit integer; its flip flags are
+	 * masked off.
+	 * @param base64 The base64 text
+	 * @param compression "zlib", "gzip", or null or "" for none.
+	 * @return The GIDs
+	 * @throws IOException if the data is corrupt or the compression
+	 * unsupported.
+	 */
+	static int[] decodeBase64(String base64, String compression)
+		throws IOException
+	{
+		var bytes = Base64.getMimeDecoder().decode(base64);
+
+		if (compression != null && !compression.isEmpty()) {
+			InputStream raw = new ByteArrayInputStream(bytes);
+
+			try (var in = switch (compression) {
+				case "zlib" -> new InflaterInputStream(raw);
+				case "gzip" -> new GZIPInputStream(raw);
+				default -> throw new IOException(
+					"Unsupported tile layer compression: " + compression);
+			}) {
+				bytes = in.readAllBytes();
+			}
+		}
+
+		var data = new int[bytes.length / 4];
+		ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN)
+			.asIntBuffer().get(data);
+
+		for (int i = 0; i < data.length; i++) {
+			data[i] &= GID_MASK;
+		}
+
+		return data;
+	}
+}
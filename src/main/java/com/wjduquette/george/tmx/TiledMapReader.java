@@ -1,19 +1,24 @@
 package com.wjduquette.george.tmx;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
 
 import com.wjduquette.george.util.Resource;
 import com.wjduquette.george.util.ResourceException;
 
-import com.google.gson.Gson;
-
 /**
  * A class representing a Tiled Map Editor tile map, as exported into
- * JSON format and loaded by GSon.  This is expected to be a transient
- * object, loaded, used to build the real data structures, and then
- * discarded; the instance variables are public and it has few convenience
- * methods.
+ * JSON format and loaded by TiledMapParser.  This is expected to be a
+ * transient object, loaded, used to build the real data structures, and
+ * then discarded; the instance variables are public and it has few
+ * convenience methods.
  *
  * <p>All classes and instance variables are defined to match the Tiled
  * JSON schema; however, no attempt is made to capture everything
@@ -39,15 +44,46 @@ public class TiledMapReader {
 	 * "firstgid" for the first tileset is always 1, leaving 0 to indicate the
 	 * absence of a tile.  At present we only use maps with a single tile set,
 	 * but if we change that we'll need to load the JSON TileSet data.
+	 *
+	 * <p>In infinite maps, a tilelayer's GIDs are in chunks[] rather than
+	 * data[], and its bounds are given by startx, starty, width, and
+	 * height.</p>
 	 */
 	public static class Layer {
 		public String name;           // The user-defined name
 		public String type;           // "tilelayer" or "objectgroup"
+		public String encoding;       // tilelayer: "csv" or "base64"
+		public String compression;    // tilelayer: "zlib", "gzip", or ""
 		public int[] data;            // tilelayer: Array of tile GIDs
+		public Chunk[] chunks;        // tilelayer: Array of chunks (infinite)
+		public int startx;            // tilelayer: Leftmost column (infinite)
+		public int starty;            // tilelayer: Topmost row (infinite)
+		public int width;             // tilelayer: Width in tiles
+		public int height;            // tilelayer: Height in tiles
 		public MapObject[] objects;   // objectgroup: Array of objects
 		public Property[] properties; // Custom properties
 
-		// Omitted fields: draworder, height, id, opacity, visible, width, x, y
+		// Omitted fields: draworder, id, opacity, visible, x, y
+
+		// Not part of the schema: for compiled maps, the tile GIDs in place
+		// in the compiled map's buffer, rather than copied into data.
+		public transient IntBuffer buffer;
+
+		/**
+		 * Gets the tile GIDs, for tile layers, in place if possible.
+		 * @return A buffer of GIDs, positioned at the first one.
+		 */
+		public IntBuffer tiles() {
+			return buffer != null ? buffer.duplicate() : IntBuffer.wrap(data);
+		}
+
+		/**
+		 * Gets the chunks, for tile layers in infinite maps.
+		 * @return The list
+		 */
+		public List<Chunk> chunks() {
+			return chunks != null ? List.of(chunks) : List.of();
+		}
 
 		/**
 		 * Gets the objects, for object groups.
@@ -66,6 +102,30 @@ public class TiledMapReader {
 		}
 	}
 
+	/**
+	 * A chunk of an infinite map's tile layer: a rectangle of GIDs, in
+	 * row-major order, at a position given in tiles.
+	 */
+	public static class Chunk {
+		public int[] data;            // Array of tile GIDs
+		public int x;                 // Leftmost column, in tiles
+		public int y;                 // Topmost row, in tiles
+		public int width;             // Width in tiles
+		public int height;            // Height in tiles
+
+		// Not part of the schema: for compiled maps, the tile GIDs in place
+		// in the compiled map's buffer, rather than copied into data.
+		public transient IntBuffer buffer;
+
+		/**
+		 * Gets the tile GIDs, in place if possible.
+		 * @return A buffer of GIDs, positioned at the first one.
+		 */
+		public IntBuffer tiles() {
+			return buffer != null ? buffer.duplicate() : IntBuffer.wrap(data);
+		}
+	}
+
 	/** An object in an "objectgroup" layer.  Objects are defined
 	 * in pixel coordinates rather than tile coordinates. */
 	public static class MapObject {
@@ -98,6 +158,24 @@ public class TiledMapReader {
 		}
 	}
 
+	/**
+	 * Receives a map's objects as they are read, in place of collecting
+	 * them in their layers.
+	 */
+	public interface ObjectHandler {
+		/**
+		 * Called for each object.  The map's fields are set as far as they
+		 * have been read: a compiled map's are complete but for its layers,
+		 * while Tiled writes keys in alphabetical order, so a JSON export's
+		 * height, width, and infinite flag are known but its tile size is
+		 * not.  The layer's name is known; its type might not be.
+		 * @param map The map, as read so far
+		 * @param layer The object's layer, as read so far
+		 * @param obj The object
+		 */
+		void object(TiledMapReader map, Layer layer, MapObject obj);
+	}
+
 	/** A Custom Property */
 	public static class Property {
 		public String name;  // The property name
@@ -119,8 +197,9 @@ public class TiledMapReader {
 	public int tilewidth;          // Width of one tile, in pixels
 	public Layer[] layers;         // The array of Layer records
 	public Property[] properties;  // Custom map properties
+	public boolean infinite;       // Whether tile layers are chunked
 
-	// Omitted: infinite, nextlayerid, nextobjectid, orientation, renderorder,
+	// Omitted: nextlayerid, nextobjectid, orientation, renderorder,
 	// tiledversion, tilesets
 
 	//------------------------------------------------------------------------
@@ -169,25 +248,96 @@ public class TiledMapReader {
 	// Static Methods.
 	
 	/** Read a Tiled Map Editor tile map from disk.  The tile map must be
-	 * saved in JSON format as a resource of a known class.  If the resource
-	 * cannot be read, the application terminates.
+	 * saved in JSON format as a resource of a known class.  If a compiled
+	 * version of the map (see CompiledMap) exists alongside it and is up to
+	 * date, the compiled map is loaded instead.  The JSON isn't read to
+	 * check this: the compiled map must record the JSON's current length,
+	 * and must be no older than it.  (The build checks the content.)
+	 * An infinite map that must be parsed is compiled to a temporary file,
+	 * so that its chunks can be paged in as needed.
+	 * If the resource cannot be read, the application terminates.
 	 * @param cls The class
 	 * @param resource The resource name
 	 * @return The TiledMapReader object.
 	 */
 	public static TiledMapReader read(Class<?> cls, String resource) {
+		return read(cls, resource, null);
+	}
+
+	/**
+	 * Reads a tile map as for read(cls, resource), passing its objects to
+	 * the handler, if one is given, as they are read.  Object groups are
+	 * then left empty.
+	 * @param cls The class
+	 * @param resource The resource name
+	 * @param handler The object handler, or null
+	 * @return The TiledMapReader object.
+	 */
+	public static TiledMapReader read(
+		Class<?> cls,
+		String resource,
+		ObjectHandler handler)
+	{
 		try {
-			List<String> lines = Resource.getLines(cls, resource);
-			String jsonText = String.join("\n", lines);
+			// FIRST, prefer the compiled map, if any, unless it's stale,
+			// e.g., because the JSON was edited and copied by a build that
+			// didn't recompile it.
+			if (resource.endsWith(".json")) {
+				var compiled = resource.substring(0, resource.length() - 5)
+					+ CompiledMap.EXTENSION;
+
+				if (Resource.exists(cls, compiled) &&
+					Resource.lastModified(cls, resource) <=
+						Resource.lastModified(cls, compiled))
+				{
+					var buf = Resource.map(cls, compiled);
+
+					if (CompiledMap.isCompiledFrom(buf,
+						Resource.length(cls, resource)))
+					{
+						return CompiledMap.decode(buf, handler);
+					}
+				}
+			}
+
+			// NEXT, parse the JSON as it is read.
+			TiledMapReader map;
+
+			try (var reader = new BufferedReader(
+				new InputStreamReader(Resource.get(cls, resource),
+					StandardCharsets.UTF_8)))
+			{
+				map = TiledMapParser.parse(reader, handler);
+			}
 
-			// NEXT, parse the JSON.
-			Gson gson = new Gson();
+			// NEXT, an infinite map's chunks are used a few at a time, so
+			// compile it to a temporary file and use its chunks in place,
+			// as for a compiled map, rather than keeping the parsed arrays.
+			// The copy is never checked against the JSON, so it records
+			// no source.
+			if (map.infinite) {
+				map = CompiledMap.decode(
+					Resource.spill(CompiledMap.encode(map, new byte[0])));
+			}
 
-			return gson.fromJson(jsonText, TiledMapReader.class);
+			return map;
 		} catch (ResourceException e) {
 			throw e;
 		} catch (Exception e) {
 			throw new ResourceException(cls, resource, e);
 		}
 	}
+
+	/**
+	 * Parses a Tiled Map Editor tile map from its JSON text.
+	 * @param jsonText The JSON text
+	 * @return The TiledMapReader object.
+	 */
+	public static TiledMapReader parse(String jsonText) {
+		try {
+			return TiledMapParser.parse(new StringReader(jsonText));
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+	}
 }
@@ -1,5 +1,7 @@
 package com.wjduquette.george.util;
 
+import com.wjduquette.george.jfr.FindRouteEvent;
+
 import java.util.*;
 
 /**
@@ -70,9 +72,33 @@ public class AStar {
         P start,
         P goal)
     {
+        var event = new FindRouteEvent();
+        event.begin();
+
         // The set of nodes already evaluated
         Set<P> closedSet = new HashSet<>();
+        List<P> route = search(frame, assessor, start, goal, closedSet);
+
+        if (event.shouldCommit()) {
+            event.start = String.valueOf(start);
+            event.goal = String.valueOf(goal);
+            event.nodesExpanded = closedSet.size();
+            event.routeLength = route.size();
+            event.commit();
+        }
+
+        return route;
+    }
 
+    // The body of the A* algorithm.  The closedSet is passed in so that
+    // findRoute can report the number of nodes expanded.
+    private static <P> List<P> search(
+        MetricFrame<P> frame,
+        Assessor<P> assessor,
+        P start,
+        P goal,
+        Set<P> closedSet)
+    {
         // The set of tentative nodes to be evaluated.
         Set<P> openSet = new HashSet<>();
         openSet.add(start);
@@ -0,0 +1,228 @@
+package com.wjduquette.george.util;
+
+import java.io.*;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * An AssetSnapshot is a pre-parsed copy of the application's ".keydata"
+ * tables, written by the build so that launching the game need not run
+ * every table through KeywordParser.  The snapshot is a single resource,
+ * {@code /com/wjduquette/george/assets/assets.snapshot}; when it is
+ * present, KeyDataTable takes its content from the snapshot, and
+ * otherwise parses the resource as usual.
+ *
+ * <p>The snapshot is rebuilt from scratch by every build, so it matches
+ * the files it was built from.  So that a snapshot left over from an
+ * earlier build is not used in place of an edited file, each table
+ * records the length of its file; a table is used only if its file still
+ * has that length and is no newer than the snapshot.  These checks don't
+ * read the file.  Otherwise, the file is simply parsed again.</p>
+ *
+ * <p>Only ".keydata" files are included.  The ".sprite" and ".terrain"
+ * files are small, and loading them is dominated by decoding their
+ * images.</p>
+ *
+ * <p>To build the snapshot, run this class's main() with the build's
+ * output directory as its argument; it parses every ".keydata" file under
+ * that directory.</p>
+ *
+ * <p>The snapshot format is a sequence of big-endian integers and
+ * length-prefixed UTF-8 strings:</p>
+ *
+ * <pre>
+ * MAGIC VERSION count
+ *     { resource sourceLength prefix entryCount { key value }... }...
+ * </pre>
+ *
+ * <p>A table without a prefix has an empty prefix string.</p>
+ */
+public final class AssetSnapshot {
+    private AssetSnapshot() {} // Not instantiable
+
+    //-------------------------------------------------------------------------
+    // Constants
+
+    /** The snapshot's absolute resource name. */
+    public static final String RESOURCE =
+        "/com/wjduquette/george/assets/assets.snapshot";
+
+    // The magic number: "GSNP"
+    private static final int MAGIC = 0x47534E50;
+
+    // The format version
+    private static final int VERSION = 3;
+
+    //-------------------------------------------------------------------------
+    // Types
+
+    /**
+     * A pre-parsed key/data table.
+     * @param prefix The table's prefix, or null
+     * @param data The table's content, by full key
+     */
+    public record KeyData(String prefix, Map<String,String> data) {}
+
+    // A table in the snapshot, with the length of its source.
+    private record Entry(long sourceLength, KeyData table) {}
+
+    // Loads the snapshot on first use; thread-safe by class initialization.
+    private static final class Holder {
+        static final Map<String,Entry> TABLES = load();
+        static final long LAST_MODIFIED = TABLES.isEmpty() ? 0
+            : Resource.lastModified(AssetSnapshot.class, RESOURCE);
+    }
+
+    // Set while building a snapshot, so that a stale one isn't used.
+    private static volatile boolean building = false;
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /**
+     * Gets the pre-parsed content of a ".keydata" resource, if it is in the
+     * snapshot and the resource is unchanged since the snapshot was built.
+     * @param cls The class
+     * @param relPath The path relative to the class
+     * @return The content, if found.
+     */
+    public static Optional<KeyData> keyData(Class<?> cls, String relPath) {
+        if (building) {
+            return Optional.empty();
+        }
+
+        var entry = Holder.TABLES.get(resourceName(cls, relPath));
+
+        if (entry == null || !Resource.exists(cls, relPath)
+            || Resource.length(cls, relPath) != entry.sourceLength()
+            || Resource.lastModified(cls, relPath) > Holder.LAST_MODIFIED)
+        {
+            return Optional.empty();
+        }
+
+        return Optional.of(entry.table());
+    }
+
+    /**
+     * Gets the absolute, normalized resource name for a path relative to
+     * a class.
+     * @param cls The class
+     * @param relPath The path relative to the class
+     * @return The name, e.g., "/com/wjduquette/george/assets/items.keydata"
+     */
+    public static String resourceName(Class<?> cls, String relPath) {
+        var name = relPath.startsWith("/") ? relPath
+            : "/" + cls.getPackageName().replace('.', '/') + "/" + relPath;
+
+        return URI.create(name).normalize().getPath();
+    }
+
+    //-------------------------------------------------------------------------
+    // Loading
+
+    private static Map<String,Entry> load() {
+        var tables = new HashMap<String,Entry>();
+
+        try (var istream = AssetSnapshot.class.getResourceAsStream(RESOURCE)) {
+            if (istream == null) {
+                return tables;
+            }
+
+            var in = new DataInputStream(new BufferedInputStream(istream));
+
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return tables;
+            }
+
+            var count = in.readInt();
+
+            for (int i = 0; i < count; i++) {
+                var resource = readString(in);
+                var sourceLength = in.readLong();
+                var prefix = readString(in);
+                var entries = in.readInt();
+                var data = new HashMap<String,String>(2*entries);
+
+                for (int j = 0; j < entries; j++) {
+                    data.put(readString(in), readString(in));
+                }
+
+                tables.put(resource, new Entry(sourceLength,
+                    new KeyData(prefix.isEmpty() ? null : prefix, data)));
+            }
+        } catch (IOException ex) {
+            // An unreadable snapshot is simply ignored.
+            tables.clear();
+        }
+
+        return tables;
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        var bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    //-------------------------------------------------------------------------
+    // Building
+
+    public static void main(String[] args) throws Exception {
+        if (args.length != 1) {
+            System.err.println("Usage: AssetSnapshot classesDir");
+            System.exit(1);
+        }
+
+        building = true;
+        var root = Path.of(args[0]);
+        List<Path> files;
+
+        try (Stream<Path> paths = Files.walk(root)) {
+            files = paths
+                .filter(p -> p.toString().endsWith(".keydata"))
+                .sorted()
+                .toList();
+        }
+
+        var out = root.resolve(RESOURCE.substring(1));
+        Files.createDirectories(out.getParent());
+
+        try (var ostream = new DataOutputStream(
+            new BufferedOutputStream(Files.newOutputStream(out))))
+        {
+            ostream.writeInt(MAGIC);
+            ostream.writeInt(VERSION);
+            ostream.writeInt(files.size());
+
+            for (Path file : files) {
+                var resource = "/" + root.relativize(file).toString()
+                    .replace(File.separatorChar, '/');
+                var table = new KeyDataTable(AssetSnapshot.class, resource);
+                writeString(ostream, resource);
+                ostream.writeLong(Files.size(file));
+                writeString(ostream,
+                    table.prefix() != null ? table.prefix() : "");
+                ostream.writeInt(table.keys().size());
+
+                for (var key : table.keys()) {
+                    writeString(ostream, key);
+                    writeString(ostream, table.get(key).orElseThrow());
+                }
+            }
+        }
+
+        System.out.println("Wrote " + files.size() + " tables to " + out);
+    }
+
+    private static void writeString(DataOutputStream out, String value)
+        throws IOException
+    {
+        var bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+}
@@ -0,0 +1,129 @@
+package com.wjduquette.george.util;
+
+/**
+ * A compiled glob pattern.  The glob syntax supports only "*", which matches
+ * any sequence of characters, and "?", which matches any single character;
+ * matching is case-insensitive.  Matching uses the greedy two-pointer
+ * algorithm, backtracking only to the most recent "*", and allocates
+ * nothing.
+ */
+public final class GlobPattern {
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The pattern's source text
+    private final String pattern;
+
+    // The text preceding the first wildcard
+    private final String literalPrefix;
+
+    // True if the pattern contains no "*".
+    private final boolean fixedLength;
+
+    //-------------------------------------------------------------------------
+    // Constructor
+
+    private GlobPattern(String pattern) {
+        this.pattern = pattern;
+
+        int i = 0;
+        while (i < pattern.length() &&
+            pattern.charAt(i) != '*' && pattern.charAt(i) != '?')
+        {
+            i++;
+        }
+        this.literalPrefix = pattern.substring(0, i);
+        this.fixedLength = pattern.indexOf('*') == -1;
+    }
+
+    /**
+     * Compiles the pattern.
+     * @param pattern The glob pattern
+     * @return The compiled pattern
+     */
+    public static GlobPattern compile(String pattern) {
+        return new GlobPattern(pattern);
+    }
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /** @return The pattern's source text. */
+    public String pattern() {
+        return pattern;
+    }
+
+    /**
+     * Gets the pattern's literal prefix, the text preceding its first
+     * wildcard.  Every matching text begins with the prefix, ignoring case.
+     * @return The prefix
+     */
+    public String literalPrefix() {
+        return literalPrefix;
+    }
+
+    /**
+     * Determines whether the text matches the pattern.
+     * @param text The text
+     * @return true if the text matches the pattern, and false otherwise.
+     */
+    public boolean matches(CharSequence text) {
+        if (fixedLength && text.length() != pattern.length()) {
+            return false;
+        }
+
+        int p = 0;           // Position in the pattern
+        int t = 0;           // Position in the text
+        int star = -1;       // Position of the last "*" in the pattern
+        int starText = 0;    // Text position that "*" was last tried at
+
+        while (t < text.length()) {
+            if (p < pattern.length()) {
+                var c = pattern.charAt(p);
+
+                if (c == '*') {
+                    star = p++;
+                    starText = t;
+                    continue;
+                } else if (c == '?' || sameIgnoringCase(c, text.charAt(t))) {
+                    p++;
+                    t++;
+                    continue;
+                }
+            }
+
+            // Mismatch: let the last "*" absorb one more character.
+            if (star == -1) {
+                return false;
+            }
+            p = star + 1;
+            t = ++starText;
+        }
+
+        // Any remaining pattern must be all "*".
+        while (p < pattern.length() && pattern.charAt(p) == '*') {
+            p++;
+        }
+
+        return p == pattern.length();
+    }
+
+    @Override
+    public String toString() {
+        return "GlobPattern[" + pattern + "]";
+    }
+
+    //-------------------------------------------------------------------------
+    // Helpers
+
+    // Compares characters as String.equalsIgnoreCase does.
+    private static boolean sameIgnoringCase(char a, char b) {
+        if (a == b) {
+            return true;
+        }
+        var ua = Character.toUpperCase(a);
+        var ub = Character.toUpperCase(b);
+        return ua == ub ||
+            Character.toLowerCase(ua) == Character.toLowerCase(ub);
+    }
+}
@@ -1,6 +1,7 @@
 package com.wjduquette.george.util;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * This class defines a key/data table, a map from keys to string values.
@@ -68,6 +69,14 @@ public final class KeyDataTable {
     // The table containing the data.
     private final Map<String,String> table = new HashMap<>();
 
+    // The keys, sorted case-insensitively so that the keys sharing a
+    // literal prefix are contiguous.  Built on first use.
+    private String[] index = null;
+
+    // The keys matching each glob pattern queried so far.
+    private final Map<String,List<String>> matchCache =
+        new ConcurrentHashMap<>();
+
     /** Creates a ".keydata" table using the strings in the named resource.
      * @param cls  The class that owns the resource.
      * @param relPath The resource name.
@@ -77,6 +86,15 @@ public final class KeyDataTable {
         this.resource = (relPath.startsWith("/"))
             ? relPath : cls.getCanonicalName() + ":" + relPath;
 
+        // NEXT, use the pre-parsed data from the asset snapshot, if any.
+        var snapshot = AssetSnapshot.keyData(cls, relPath);
+
+        if (snapshot.isPresent()) {
+            this.prefix = snapshot.get().prefix();
+            table.putAll(snapshot.get().data());
+            return;
+        }
+
         // NEXT, load the data.
         try {
             loadData(cls, relPath);
@@ -118,7 +136,7 @@ public final class KeyDataTable {
             table.put(key, block);
         });
 
-        parser.parse(Resource.getLines(cls, relPath));
+        parser.parse(cls, relPath);
     }
 
     //-------------------------------------------------------------------------
@@ -162,14 +180,13 @@ public final class KeyDataTable {
         return table.keySet();
     }
 
-    /** Return a list of the keys that match a glob pattern
+    /** Return a list of the keys that match a glob pattern, in
+     * case-insensitive order.
      * @param pattern The glob pattern
      * @return the list.
      */
     public List<String> keys(String pattern) {
-        return table.keySet().stream()
-            .filter(key -> StringUtil.matches(pattern, key))
-            .toList();
+        return matchCache.computeIfAbsent(pattern, this::findKeys);
     }
 
     /** Return a list of the entries whose keys match a glob pattern
@@ -177,8 +194,8 @@ public final class KeyDataTable {
      * @return the list.
      */
     public List<Map.Entry<String,String>> pairs(String pattern) {
-        return table.entrySet().stream()
-            .filter(e -> StringUtil.matches(pattern, e.getKey()))
+        return keys(pattern).stream()
+            .map(key -> Map.entry(key, table.get(key)))
             .toList();
     }
 
@@ -187,9 +204,49 @@ public final class KeyDataTable {
      * @return the list.
      */
     public List<String> values(String pattern) {
-        return table.entrySet().stream()
-            .filter(e -> StringUtil.matches(pattern, e.getKey()))
-            .map(Map.Entry::getValue)
+        return keys(pattern).stream()
+            .map(table::get)
             .toList();
     }
+
+    //-------------------------------------------------------------------------
+    // Helpers
+
+    // Finds the keys that match the pattern.  Only the keys that begin
+    // with the pattern's literal prefix, i.e., the text preceding its
+    // first wildcard, can match; these are found by binary search on the
+    // index.
+    private List<String> findKeys(String pattern) {
+        var keys = index();
+        var glob = GlobPattern.compile(pattern);
+        var prefix = glob.literalPrefix();
+
+        int i = Arrays.binarySearch(keys, prefix, String.CASE_INSENSITIVE_ORDER);
+        if (i < 0) {
+            i = -(i + 1);
+        }
+
+        var result = new ArrayList<String>();
+
+        for (; i < keys.length; i++) {
+            var key = keys[i];
+            if (!key.regionMatches(true, 0, prefix, 0, prefix.length())) {
+                break;
+            }
+            if (glob.matches(key)) {
+                result.add(key);
+            }
+        }
+
+        return List.copyOf(result);
+    }
+
+    // Gets the sorted key index, building it if need be.
+    private synchronized String[] index() {
+        if (index == null) {
+            index = table.keySet().toArray(String[]::new);
+            Arrays.sort(index, String.CASE_INSENSITIVE_ORDER);
+        }
+        return index;
+    }
 }
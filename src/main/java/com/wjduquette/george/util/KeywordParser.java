@@ -1,5 +1,6 @@
 package com.wjduquette.george.util;
 
+import java.io.*;
 import java.util.*;
 
 /**
@@ -47,22 +48,106 @@ public final class KeywordParser {
     //-------------------------------------------------------------------------
     // Parsing
 
+    /**
+     * Parses a text resource, streaming it line by line.
+     * @param cls The class
+     * @param relPath The path to the resource relative to the class
+     * @throws KeywordException on keyword error.
+     * @throws ResourceException if the resource could not be read.
+     */
+    public void parse(Class<?> cls, String relPath) throws KeywordException {
+        try (var reader = new BufferedReader(
+            new InputStreamReader(Resource.get(cls, relPath))))
+        {
+            parse(reader);
+        } catch (IOException ex) {
+            throw new ResourceException(cls, relPath, ex);
+        }
+    }
+
+    /**
+     * Parses the input from a reader in a single pass, without reading it
+     * into memory first.
+     * @param reader The reader
+     * @throws KeywordException on keyword error.
+     * @throws IOException on read error.
+     */
+    public void parse(Reader reader) throws KeywordException, IOException {
+        var buffered = reader instanceof BufferedReader br
+            ? br : new BufferedReader(reader);
+
+        parse(new LineCursor() {
+            boolean advance() throws IOException {
+                var line = buffered.readLine();
+                if (line == null) {
+                    return false;
+                }
+                set(line, 0, line.length());
+                return true;
+            }
+        });
+    }
+
+    /**
+     * Parses the input text in place; lines are scanned directly from the
+     * character sequence.
+     * @param text The input text
+     * @throws KeywordException on keyword error.
+     */
+    public void parse(CharSequence text) throws KeywordException {
+        try {
+            parse(new LineCursor() {
+                private int next = 0;
+
+                boolean advance() {
+                    if (next >= text.length()) {
+                        return false;
+                    }
+
+                    int start = next;
+                    int end = start;
+                    while (end < text.length() && text.charAt(end) != '\n') {
+                        end++;
+                    }
+                    next = end + 1;
+
+                    if (end > start && text.charAt(end - 1) == '\r') {
+                        end--;
+                    }
+                    set(text, start, end);
+                    return true;
+                }
+            });
+        } catch (IOException ex) {
+            // Not possible; the input is in memory.
+            throw new UncheckedIOException(ex);
+        }
+    }
+
     /**
      * Parses the lines.
      * @param lines The input lines
      * @throws KeywordException on keyword error.
      */
     public void parse(List<String> lines) throws KeywordException {
-        Queue<String> queue = new LinkedList<>(lines);
+        parse(String.join("\n", lines));
+    }
 
-        while (!queue.isEmpty()) {
-            var line = queue.poll().trim();
+    // Parses the lines delivered by the cursor.
+    private void parse(LineCursor cursor)
+        throws KeywordException, IOException
+    {
+        var scanner = new KeywordScanner();
+        var block = new StringBuilder();
+
+        while (cursor.advance()) {
+            cursor.trim();
 
-            if (line.isEmpty() || line.startsWith("#")) {
+            if (cursor.isEmpty() || cursor.charAt(0) == '#') {
                 continue;
             }
 
-            var scanner = new Scanner(line);
+            scanner.reset(cursor.input, cursor.start, cursor.end);
             var keyword = scanner.next();
 
             var def = definitions.get(keyword);
@@ -71,36 +156,90 @@ public final class KeywordParser {
                 throw new KeywordException("Unrecognized keyword: " + keyword);
             }
 
-            String block = getAnyBlock(queue, def.endKeyword());
-            def.handler().accept(scanner, block);
-            scanner.close();
+            String text = getAnyBlock(cursor, block, def.endKeyword());
+            def.handler().accept(scanner, text);
         }
     }
 
     // Accumulate lines from the file into a block, if we have an
     // endKeyword.
-    private String getAnyBlock(Queue<String> queue, String endKeyword)
-        throws KeywordException
+    private String getAnyBlock(
+        LineCursor cursor,
+        StringBuilder block,
+        String endKeyword
+    ) throws KeywordException, IOException
     {
         if (endKeyword == null) {
             return null;
         }
 
-        List<String> block = new ArrayList<>();
+        block.setLength(0);
+
+        while (cursor.advance()) {
+            int start = cursor.start;
+            int end = cursor.end;
+            cursor.trim();
 
-        while (!queue.isEmpty()) {
-            var blockLine = queue.poll();
-            if (blockLine.trim().equals(endKeyword)) {
-                return String.join("\n", block).trim();
-            } else {
-                block.add(blockLine);
+            if (cursor.contentEquals(endKeyword)) {
+                return block.toString().trim();
             }
+
+            if (!block.isEmpty()) {
+                block.append('\n');
+            }
+            block.append(cursor.input, start, end);
         }
 
         throw new KeywordException("Missing block end keyword: \"" +
             endKeyword + "\"");
     }
 
+    // The current line of the input, as a region of a character sequence.
+    private abstract static class LineCursor {
+        CharSequence input;
+        int start;
+        int end;
+
+        // Moves to the next line, returning false at the end of the input.
+        abstract boolean advance() throws IOException;
+
+        void set(CharSequence input, int start, int end) {
+            this.input = input;
+            this.start = start;
+            this.end = end;
+        }
+
+        // Trims leading and trailing whitespace, as String.trim() does.
+        void trim() {
+            while (start < end && input.charAt(start) <= ' ') {
+                start++;
+            }
+            while (end > start && input.charAt(end - 1) <= ' ') {
+                end--;
+            }
+        }
+
+        boolean isEmpty() {
+            return start == end;
+        }
+
+        char charAt(int i) {
+            return input.charAt(start + i);
+        }
+
+        boolean contentEquals(String text) {
+            if (end - start != text.length()) {
+                return false;
+            }
+            for (int i = 0; i < text.length(); i++) {
+                if (input.charAt(start + i) != text.charAt(i)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
     // A keyword definition
     private record Definition(KeywordHandler handler, String endKeyword) {}
 
@@ -113,13 +252,16 @@ public final class KeywordParser {
          * @param scanner The scanner
          * @param block For block keywords, the text block.
          */
-        void accept(Scanner scanner, String block);
+        void accept(KeywordScanner scanner, String block);
     }
 
     /**
      * An exception raised while parsing the input.
      */
     public static class KeywordException extends Exception {
+        @Serial
+        private static final long serialVersionUID = 1L;
+
         public KeywordException(String message) {
             super(message);
         }
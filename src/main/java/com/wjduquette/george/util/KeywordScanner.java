@@ -0,0 +1,134 @@
+package com.wjduquette.george.util;
+
+import java.util.InputMismatchException;
+import java.util.NoSuchElementException;
+
+/**
+ * A lightweight scanner over one line of keyword input, used by
+ * KeywordParser in place of java.util.Scanner.  It reads whitespace-delimited
+ * tokens directly from a region of the underlying character sequence,
+ * and is reset for each line rather than being reallocated.
+ */
+public final class KeywordScanner {
+    //-------------------------------------------------------------------------
+    // Instance Variables
+
+    // The input
+    private CharSequence input = "";
+
+    // The current position and the end of the line in the input.
+    private int pos = 0;
+    private int end = 0;
+
+    //-------------------------------------------------------------------------
+    // Constructor
+
+    /**
+     * Creates a scanner over the given line.
+     * @param line The line
+     */
+    public KeywordScanner(CharSequence line) {
+        reset(line, 0, line.length());
+    }
+
+    KeywordScanner() {
+        // Nothing to do
+    }
+
+    /**
+     * Resets the scanner to read the region [start, end) of the input.
+     * @param input The input
+     * @param start The start of the region
+     * @param end The end of the region
+     */
+    void reset(CharSequence input, int start, int end) {
+        this.input = input;
+        this.pos = start;
+        this.end = end;
+    }
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /**
+     * Returns true if there's another token on the line.
+     * @return true or false
+     */
+    public boolean hasNext() {
+        return skipWhitespace(pos) < end;
+    }
+
+    /**
+     * Returns the next token on the line.
+     * @return The token
+     * @throws NoSuchElementException if there are no more tokens.
+     */
+    public String next() {
+        int start = skipWhitespace(pos);
+
+        if (start == end) {
+            throw new NoSuchElementException();
+        }
+
+        pos = skipToken(start);
+        return input.subSequence(start, pos).toString();
+    }
+
+    /**
+     * Returns the next token on the line as an integer.  The token is
+     * consumed only if it is an integer.
+     * @return The integer
+     * @throws NoSuchElementException if there are no more tokens.
+     * @throws InputMismatchException if the token is not an integer.
+     */
+    public int nextInt() {
+        int start = skipWhitespace(pos);
+
+        if (start == end) {
+            throw new NoSuchElementException();
+        }
+
+        int tokenEnd = skipToken(start);
+
+        try {
+            int value = Integer.parseInt(input, start, tokenEnd, 10);
+            pos = tokenEnd;
+            return value;
+        } catch (NumberFormatException ex) {
+            throw new InputMismatchException(
+                "For input string: \"" + input.subSequence(start, tokenEnd) + "\"");
+        }
+    }
+
+    /**
+     * Returns the remainder of the line, including any leading whitespace.
+     * @return The text
+     * @throws NoSuchElementException if the line has been consumed.
+     */
+    public String nextLine() {
+        if (pos == end) {
+            throw new NoSuchElementException("No line found");
+        }
+
+        var result = input.subSequence(pos, end).toString();
+        pos = end;
+        return result;
+    }
+
+    //-------------------------------------------------------------------------
+    // Helpers
+
+    private int skipWhitespace(int i) {
+        while (i < end && Character.isWhitespace(input.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+
+    private int skipToken(int i) {
+        while (i < end && !Character.isWhitespace(input.charAt(i))) {
+            i++;
+        }
+        return i;
+    }
+}
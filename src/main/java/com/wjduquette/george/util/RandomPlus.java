@@ -1,5 +1,6 @@
 package com.wjduquette.george.util;
 
+import java.io.Serial;
 import java.util.List;
 import java.util.Random;
 
@@ -9,6 +10,9 @@ import java.util.Random;
  *
  */
 public final class RandomPlus extends Random {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     /** Rolls a random number of points from min to max,
      * uniformly distributed.
      *
@@ -1,7 +1,16 @@
 package com.wjduquette.george.util;
 
 import java.io.*;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * A utility class for reading application resources.  All calls will throw
@@ -10,6 +19,11 @@ import java.util.List;
 public class Resource {
     private Resource() {} // Not instantiable
 
+    // The temporary files to which resources have been extracted for
+    // mapping, by URL.
+    private static final Map<String,Path> extracted =
+        new ConcurrentHashMap<>();
+
     /**
      * Get an input stream on a text resource.
      * @param cls The class
@@ -27,6 +41,119 @@ public class Resource {
         }
     }
 
+    /**
+     * Determines whether a resource exists.
+     * @param cls The class
+     * @param relPath the path relative to the class
+     * @return true if it exists, and false otherwise.
+     */
+    public static boolean exists(Class<?> cls, String relPath) {
+        return cls.getResource(relPath) != null;
+    }
+
+    /**
+     * Gets the length of a resource, in bytes, without reading it.
+     * @param cls The class
+     * @param relPath the path relative to the class
+     * @return The length
+     * @throws ResourceException if the resource could not be found or read.
+     */
+    public static long length(Class<?> cls, String relPath) {
+        var url = url(cls, relPath);
+
+        try {
+            if (url.getProtocol().equals("file")) {
+                return Files.size(Path.of(url.toURI()));
+            }
+            return url.openConnection().getContentLengthLong();
+        } catch (Exception ex) {
+            throw new ResourceException(cls, relPath, ex);
+        }
+    }
+
+    /**
+     * Gets the time a resource was last modified, in milliseconds since
+     * the epoch, without reading it.  For a resource in a jar, this is the
+     * time recorded for the jar entry.
+     * @param cls The class
+     * @param relPath the path relative to the class
+     * @return The time
+     * @throws ResourceException if the resource could not be found or read.
+     */
+    public static long lastModified(Class<?> cls, String relPath) {
+        var url = url(cls, relPath);
+
+        try {
+            if (url.getProtocol().equals("file")) {
+                return Files.getLastModifiedTime(Path.of(url.toURI()))
+                    .toMillis();
+            }
+            return url.openConnection().getLastModified();
+        } catch (Exception ex) {
+            throw new ResourceException(cls, relPath, ex);
+        }
+    }
+
+    /**
+     * Get the content of a binary resource.
+     * @param cls The class
+     * @param relPath the path relative to the class
+     * @return The bytes
+     * @throws ResourceException if the resource could not be found or read.
+     */
+    public static byte[] getBytes(Class<?> cls, String relPath) {
+        try (var istream = get(cls, relPath)) {
+            return istream.readAllBytes();
+        } catch (IOException ex) {
+            throw new ResourceException(cls, relPath, ex);
+        }
+    }
+
+    /**
+     * Get the content of a binary resource as a read-only, memory-mapped
+     * buffer, so that its pages are loaded on demand and need not be
+     * copied onto the heap.  If the resource is a file on disk the file is
+     * mapped in place; otherwise, e.g., in a jar, the resource is first
+     * extracted to a temporary file, once per run, and that file is mapped.
+     * @param cls The class
+     * @param relPath the path relative to the class
+     * @return The buffer
+     * @throws ResourceException if the resource could not be found or read.
+     */
+    public static ByteBuffer map(Class<?> cls, String relPath) {
+        var url = url(cls, relPath);
+
+        try {
+            var path = url.getProtocol().equals("file")
+                ? Path.of(url.toURI())
+                : extracted.computeIfAbsent(url.toString(), $ -> extract(url));
+
+            return mapFile(path);
+        } catch (Exception ex) {
+            throw new ResourceException(cls, relPath, ex);
+        }
+    }
+
+    /**
+     * Writes data to a temporary file, which is deleted on exit, and
+     * returns it as a read-only, memory-mapped buffer.  Data that is
+     * derived from a resource but used only a piece at a time can thus be
+     * paged in and out as needed rather than kept on the heap.
+     * @param bytes The data
+     * @return The buffer
+     * @throws UncheckedIOException if the file cannot be written.
+     */
+    public static ByteBuffer spill(byte[] bytes) {
+        try {
+            var path = Files.createTempFile("george", ".tmp");
+            path.toFile().deleteOnExit();
+            Files.write(path, bytes);
+            return mapFile(path);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
     /**
      * Get a list of the lines from a text resource.
      * @param cls The class
@@ -56,4 +183,33 @@ public class Resource {
            .resolve(relPath).toString();
     }
 
+    // Copies the resource to a temporary file, which is deleted on exit.
+    private static Path extract(URL url) {
+        try (var istream = url.openStream()) {
+            var path = Files.createTempFile("george", ".res");
+            path.toFile().deleteOnExit();
+            Files.copy(istream, path, StandardCopyOption.REPLACE_EXISTING);
+            return path;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    // Maps the file, read-only.
+    private static ByteBuffer mapFile(Path path) throws IOException {
+        try (var channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                channel.size());
+        }
+    }
+
+    // Gets the resource's URL.
+    private static URL url(Class<?> cls, String relPath) {
+        var url = cls.getResource(relPath);
+
+        if (url == null) {
+            throw new ResourceException(cls, relPath);
+        }
+        return url;
+    }
 }
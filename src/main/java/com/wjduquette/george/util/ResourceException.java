@@ -1,9 +1,14 @@
 package com.wjduquette.george.util;
 
+import java.io.Serial;
+
 /**
  * The exception thrown when a resource cannot be found.
  */
 public class ResourceException extends RuntimeException {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     private static final String PREFIX =
         "Failed to find expected resource: ";
 
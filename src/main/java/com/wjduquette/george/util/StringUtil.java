@@ -7,40 +7,15 @@ public class StringUtil {
 
     /**
      * Determines whether a given string matches a glob pattern.
-     * Note that the glob syntax supports only "*" and "?".
-     * I copied this code (with minor changes) from a StackOverflow answer:
-     * http://stackoverflow.com/questions/1247772/is-there-an-equivalent-of-java-util-regex-for-glob-type-patterns
+     * Note that the glob syntax supports only "*" and "?", and that matching
+     * is case-insensitive.  Callers that match one pattern repeatedly should
+     * compile it once with GlobPattern.compile().
      * @param pattern  The glob pattern
      * @param text  The text to match
      * @return true if the text matches the pattern, and false otherwise.
      */
     public static boolean matches(String pattern, String text) {
-        String rest = null;
-        int pos = pattern.indexOf('*');
-        if (pos != -1) {
-            rest = pattern.substring(pos + 1);
-            pattern = pattern.substring(0, pos);
-        }
-
-        if (pattern.length() > text.length())
-            return false;
-
-        // handle the part up to the first *
-        for (int i = 0; i < pattern.length(); i++)
-            if (pattern.charAt(i) != '?'
-                && !pattern.substring(i, i + 1).equalsIgnoreCase(text.substring(i, i + 1)))
-                return false;
-
-        // recurse for the part after the first *, if any
-        if (rest == null) {
-            return pattern.length() == text.length();
-        } else {
-            for (int i = pattern.length(); i <= text.length(); i++) {
-                if (matches(rest, text.substring(i)))
-                    return true;
-            }
-            return false;
-        }
+        return GlobPattern.compile(pattern).matches(text);
     }
 
     /** Given a list of strings, joins them together with commas
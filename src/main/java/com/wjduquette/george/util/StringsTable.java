@@ -92,7 +92,7 @@ public final class StringsTable {
             table.put(key, block);
         });
 
-        parser.parse(Resource.getLines(cls, relPath));
+        parser.parse(cls, relPath);
     }
 
     //-------------------------------------------------------------------------
@@ -0,0 +1,104 @@
+package com.wjduquette.george.util;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The application's symbol table.  It interns strings such as sprite names
+ * and info keys, assigning each a dense integer ID, 0 to N - 1, in order of
+ * first use.  Components store symbol IDs rather than strings, so that
+ * identical names share one String and lookups keyed by name can be array
+ * indices rather than hash lookups.
+ *
+ * <p>Symbols are never removed.  Symbol IDs are valid only within the
+ * running process; they are not a persistence format.</p>
+ */
+public final class Symbols {
+    private Symbols() {} // Not instantiable
+
+    //-------------------------------------------------------------------------
+    // Static Variables
+
+    // The map from name to ID
+    private static final Map<String,Integer> ids = new ConcurrentHashMap<>();
+
+    // The names, by ID.  Written only by define(), under its lock: a new
+    // name is stored in the current array, which is replaced by a larger
+    // copy when full, and the array is then republished by a volatile
+    // write before the name's ID is made visible in ids.
+    private static volatile String[] names = new String[256];
+
+    // The number of symbols defined.
+    private static int count = 0;
+
+    //-------------------------------------------------------------------------
+    // Public Methods
+
+    /**
+     * Interns the name, returning its symbol ID.
+     * @param name The name
+     * @return The ID
+     */
+    public static int intern(String name) {
+        var id = ids.get(name);
+        return id != null ? id : define(name);
+    }
+
+    /**
+     * Returns the canonical instance of the name, interning it if need be.
+     * @param name The name
+     * @return The canonical string
+     */
+    public static String canonical(String name) {
+        return name(intern(name));
+    }
+
+    /**
+     * Gets a symbol's name.
+     * @param id The symbol ID
+     * @return The name
+     * @throws IllegalArgumentException if the ID is undefined.
+     */
+    public static String name(int id) {
+        var table = names;
+
+        if (id < 0 || id >= table.length || table[id] == null) {
+            throw new IllegalArgumentException("Undefined symbol ID: " + id);
+        }
+        return table[id];
+    }
+
+    /**
+     * Gets the number of symbols defined so far.  Every ID is less than
+     * this.
+     * @return The count
+     */
+    public static synchronized int size() {
+        return count;
+    }
+
+    //-------------------------------------------------------------------------
+    // Helpers
+
+    // Defines the symbol, if it wasn't defined by another thread first.
+    private static synchronized int define(String name) {
+        var id = ids.get(name);
+
+        if (id != null) {
+            return id;
+        }
+
+        if (count == names.length) {
+            names = Arrays.copyOf(names, 2 * count);
+        }
+
+        // Store the name before publishing the ID, so that name() can
+        // always see it.
+        var table = names;
+        table[count] = name;
+        names = table;
+        ids.put(name, count);
+        return count++;
+    }
+}
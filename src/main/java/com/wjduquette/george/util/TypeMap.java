@@ -1,8 +1,13 @@
 package com.wjduquette.george.util;
 
+import java.io.Serial;
+import java.io.Serializable;
 import java.util.*;
 
-public final class TypeMap {
+public final class TypeMap implements Serializable {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     //-------------------------------------------------------------------------
     // Instance Variables
 
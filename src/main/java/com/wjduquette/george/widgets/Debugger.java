@@ -3,9 +3,14 @@ package com.wjduquette.george.widgets;
 import com.wjduquette.george.App;
 import com.wjduquette.george.GameView;
 import com.wjduquette.george.ecs.Entity;
+import com.wjduquette.george.ecs.EntityTable;
 import com.wjduquette.george.ecs.Exit;
 import com.wjduquette.george.ecs.Player;
 import com.wjduquette.george.ecs.Point;
+import javafx.animation.PauseTransition;
+import javafx.beans.Observable;
+import javafx.beans.property.ReadOnlyStringProperty;
+import javafx.beans.property.ReadOnlyStringWrapper;
 import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 import javafx.collections.transformation.FilteredList;
@@ -16,13 +21,20 @@ import javafx.scene.control.cell.PropertyValueFactory;
 import javafx.scene.layout.*;
 import javafx.scene.text.Font;
 import javafx.stage.Stage;
+import javafx.util.Duration;
 
-import java.util.HashSet;
-import java.util.Set;
+import java.util.*;
 
 import static com.wjduquette.george.util.Combinator.with;
 
 public class Debugger extends StackPane {
+    //-------------------------------------------------------------------------
+    // Constants
+
+    // How long the entity filter waits after the last keystroke before
+    // re-filtering the entity list.
+    private static final Duration FILTER_DELAY = Duration.millis(250);
+
     //-------------------------------------------------------------------------
     // Instance Variables
 
@@ -36,6 +48,28 @@ public class Debugger extends StackPane {
     private MenuButton gotoMenu;
     private Label playerCellLabel;
     private ContextMenu entityContextMenu;
+    private final PauseTransition filterDelay = new PauseTransition(FILTER_DELAY);
+
+    // The proxies in entityList, by entity ID.
+    private final Map<Long,EntityProxy> proxies = new HashMap<>();
+
+    // The entity table the entityList reflects, and the IDs of the entities
+    // that have been added, removed, or modified since the last refresh.
+    private EntityTable watchedTable = null;
+    private final Set<Long> changedIds = new LinkedHashSet<>();
+    private final EntityTable.Listener tableListener = new EntityTable.Listener() {
+        @Override public void entityAdded(Entity entity) {
+            changedIds.add(entity.id());
+        }
+
+        @Override public void entityRemoved(Entity entity) {
+            changedIds.add(entity.id());
+        }
+
+        @Override public void entityChanged(Entity entity, Class<?> component) {
+            changedIds.add(entity.id());
+        }
+    };
 
     // The application
     private final App app;
@@ -97,8 +131,12 @@ public class Debugger extends StackPane {
 
         TextField entityFilter = new TextField();
         entityFilter.setPrefColumnCount(20);
-        entityFilter.textProperty().addListener((p, o, n) ->
-            filteredEntityList.setPredicate(ep -> doEntityFilter(ep, n)));
+        // Filter only once the user pauses typing.
+        entityFilter.textProperty().addListener((p, o, n) -> {
+            filterDelay.setOnFinished(evt ->
+                filteredEntityList.setPredicate(ep -> doEntityFilter(ep, n)));
+            filterDelay.playFromStart();
+        });
         toolbar.getItems().add(new Label("Filter"));
         toolbar.getItems().add(entityFilter);
 
@@ -119,8 +157,10 @@ public class Debugger extends StackPane {
         playerCellLabel.setFont(Font.font("Menlo"));
         toolbar.getItems().add(playerCellLabel);
 
-        // EntitiesView
-        entityList = FXCollections.observableArrayList();
+        // EntitiesView.  The extractor causes the filtered list to
+        // re-filter a row when its text changes.
+        entityList = FXCollections.observableArrayList(
+            ep -> new Observable[] { ep.textProperty() });
         entitiesView = new TableView<>();
         entitiesView.setStyle("-fx-font-family: Menlo;");
         filteredEntityList = new FilteredList<>(entityList, ep -> doEntityFilter(ep, null));
@@ -246,6 +286,7 @@ public class Debugger extends StackPane {
     private void onClose() {
         // TODO Notify owner.
         stage.hide();
+        watch(null);
 
         if (onClose != null) {
             onClose.run();
@@ -272,19 +313,74 @@ public class Debugger extends StackPane {
         var player = region.query(Player.class).findFirst().orElseThrow();
         playerCellLabel.setText(player.cell().displayString());
 
-        // Populate the entities table
+        // Populate the entities table.  If the region has changed, start
+        // over; otherwise update only the rows that have changed.
+        if (watchedTable != region.entities()) {
+            watch(region.entities());
+        } else {
+            updateChangedRows();
+        }
+    }
+
+    // Starts watching the given table, repopulating the entities list
+    // from scratch.  If the table is null, just stops watching.
+    private void watch(EntityTable table) {
+        if (watchedTable != null) {
+            watchedTable.removeListener(tableListener);
+        }
+
+        watchedTable = table;
+        changedIds.clear();
+        proxies.clear();
+
+        if (table == null) {
+            entityList.clear();
+            return;
+        }
+
+        table.addListener(tableListener);
+
         var selectedEntity = entitiesView.getSelectionModel().getSelectedItem();
-        entityList.clear();
-
-        for (long id : region.entities().ids()) {
-            var entity = region.get(id);
-            var newProxy = new EntityProxy(entity);
-            entityList.add(newProxy);
-            if (selectedEntity != null &&
-                selectedEntity.entity.id() == newProxy.entity.id()) {
-                entitiesView.getSelectionModel().select(newProxy);
+        List<EntityProxy> rows = new ArrayList<>();
+
+        for (Entity entity : table.stream().toList()) {
+            var proxy = new EntityProxy(entity);
+            proxies.put(entity.id(), proxy);
+            rows.add(proxy);
+        }
+
+        entityList.setAll(rows);
+
+        if (selectedEntity != null) {
+            var proxy = proxies.get(selectedEntity.getId());
+            if (proxy != null) {
+                entitiesView.getSelectionModel().select(proxy);
+            }
+        }
+    }
+
+    // Adds, removes, and updates the rows for the entities that have
+    // changed since the last refresh.
+    private void updateChangedRows() {
+        for (long id : changedIds) {
+            var entity = watchedTable.get(id);
+            var proxy = proxies.get(id);
+
+            if (entity == null) {
+                if (proxy != null) {
+                    proxies.remove(id);
+                    entityList.remove(proxy);
+                }
+            } else if (proxy == null) {
+                proxy = new EntityProxy(entity);
+                proxies.put(id, proxy);
+                entityList.add(proxy);
+            } else {
+                proxy.update();
             }
         }
+
+        changedIds.clear();
     }
 
     /**
@@ -300,11 +396,29 @@ public class Debugger extends StackPane {
     //-------------------------------------------------------------------------
     // Helper Classes
 
+    /**
+     * A row in the entities table.  The row's text is computed when the
+     * proxy is created and when the entity changes, not on every display
+     * or filter.
+     */
     public static class EntityProxy {
         private final Entity entity;
+        private final ReadOnlyStringWrapper label = new ReadOnlyStringWrapper();
+        private final ReadOnlyStringWrapper place = new ReadOnlyStringWrapper();
+        private final ReadOnlyStringWrapper text = new ReadOnlyStringWrapper();
 
         EntityProxy(Entity entity) {
             this.entity = entity;
+            update();
+        }
+
+        /**
+         * Recomputes the row's cached values from the entity.
+         */
+        void update() {
+            label.set(entity.label() != null ? entity.label().text() : "--");
+            place.set(entity.loc() != null ? entity.cell().displayString() : "--");
+            text.set(entity.componentString().replaceAll("\\s+", " "));
         }
 
         public Long getId() {
@@ -315,24 +429,19 @@ public class Debugger extends StackPane {
             return String.format("%04d", entity.id());
         }
 
-        public String getLabel() {
-            if (entity.label() != null) {
-                return entity.label().text();
-            } else {
-                return "--";
-            }
+        public String getLabel() { return label.get(); }
+        public ReadOnlyStringProperty labelProperty() {
+            return label.getReadOnlyProperty();
         }
 
-        public String getPlace() {
-            if (entity.loc() != null) {
-                return entity.cell().displayString();
-            } else {
-                return "--";
-            }
+        public String getPlace() { return place.get(); }
+        public ReadOnlyStringProperty placeProperty() {
+            return place.getReadOnlyProperty();
         }
 
-        public String getText() {
-            return entity.componentString().replaceAll("\\s+", " ");
+        public String getText() { return text.get(); }
+        public ReadOnlyStringProperty textProperty() {
+            return text.getReadOnlyProperty();
         }
     }
 }
@@ -66,8 +66,8 @@ public class DialogPanel extends GamePane implements Panel {
         var iy = 30;
 
         drawFramedSprites(
-            toImage(dialog.foregroundSprite()),
-            toImage(dialog.backgroundSprite()),
+            toSprite(dialog.foregroundSprite()),
+            toSprite(dialog.backgroundSprite()),
             ix, iy, 2);
 
         // Draw the text.  tx and ty are in canvas coordinates
@@ -3,7 +3,9 @@ package com.wjduquette.george.widgets;
 import com.wjduquette.george.App;
 import com.wjduquette.george.ecs.Entity;
 import com.wjduquette.george.ecs.Sprite;
+import com.wjduquette.george.graphics.ImageInfo;
 import com.wjduquette.george.graphics.ImageUtils;
+import com.wjduquette.george.graphics.ScaledImageCache;
 import com.wjduquette.george.graphics.SpriteSet;
 import com.wjduquette.george.model.ItemSlot;
 import javafx.geometry.BoundingBox;
@@ -45,6 +47,9 @@ public abstract class GamePane extends StackPane {
     /** The leading we use with the NORMAL_FONT. */
     public static final double NORMAL_LEADING = 20;
 
+    // Enlarged sprites, as drawn by drawFramedSprites.
+    private static final ScaledImageCache SCALED_SPRITES = new ScaledImageCache();
+
 
     //-------------------------------------------------------------------------
     // Instance Variables
@@ -187,7 +192,7 @@ public abstract class GamePane extends StackPane {
      * @param name The sprite name
      * @return The image
      */
-    protected Image toImage(String name) {
+    protected ImageInfo toSprite(String name) {
         return sprites().get(name);
     }
 
@@ -196,8 +201,8 @@ public abstract class GamePane extends StackPane {
      * @param sprite The Sprite component
      * @return The image
      */
-    protected Image toImage(Sprite sprite) {
-        return sprites().get(sprite.name());
+    protected ImageInfo toSprite(Sprite sprite) {
+        return sprites().get(sprite.symbol());
     }
 
     /**
@@ -205,8 +210,8 @@ public abstract class GamePane extends StackPane {
      * @param entity The entity
      * @return The image
      */
-    protected Image toImage(Entity entity) {
-        return sprites().get(entity.sprite().name());
+    protected ImageInfo toSprite(Entity entity) {
+        return sprites().get(entity.sprite().symbol());
     }
 
     //-------------------------------------------------------------------------
@@ -220,6 +225,14 @@ public abstract class GamePane extends StackPane {
         gc().drawImage(image, point.getX(), point.getY());
     }
 
+    protected void drawSprite(ImageInfo sprite, double x, double y) {
+        ImageUtils.draw(gc(), sprite, x, y);
+    }
+
+    protected void drawSprite(ImageInfo sprite, Point2D point) {
+        ImageUtils.draw(gc(), sprite, point.getX(), point.getY());
+    }
+
     /**
      * Draws the entity as shown in dialogs, etc.  The entity and its
      * background terrain are drawn double-sized at the given location,
@@ -231,10 +244,10 @@ public abstract class GamePane extends StackPane {
      */
     protected void drawFramedEntity(Entity entity, double x, double y, int factor) {
         var terrain = entity.cell() != null
-            ? app().getCurrentRegion().getTerrain(entity.cell()).image()
+            ? app().getCurrentRegion().getTerrain(entity.cell())
             : null;
 
-        drawFramedSprites(toImage(entity), terrain, x, y, factor);
+        drawFramedSprites(toSprite(entity), terrain, x, y, factor);
     }
 
     /**
@@ -246,8 +259,8 @@ public abstract class GamePane extends StackPane {
      * @param y The top y coordinate, in pixels
      */
     protected void drawFramedSprites(
-        Image fgImage,
-        Image bgImage,
+        ImageInfo fgImage,
+        ImageInfo bgImage,
         double x,
         double y,
         int factor)
@@ -255,20 +268,20 @@ public abstract class GamePane extends StackPane {
         var border = 2;
         var ix = x + border;
         var iy = y + border;
-        var iw = factor * fgImage.getWidth();
-        var ih = factor * fgImage.getHeight();
+        var iw = factor * fgImage.width();
+        var ih = factor * fgImage.height();
         var w = iw + 2*border;
         var h = ih + 2*border;
 
         fill(Color.WHITE, x, y, w, h);
 
         if (bgImage != null) {
-            drawImage(ImageUtils.embiggen(bgImage, factor), ix, iy);
+            drawImage(SCALED_SPRITES.get(bgImage, factor), ix, iy);
         } else {
             fill(Color.CYAN, ix, iy, iw, ih);
         }
 
-        drawImage(ImageUtils.embiggen(fgImage, factor), ix, iy);
+        drawImage(SCALED_SPRITES.get(fgImage, factor), ix, iy);
     }
 
     protected void fill(Paint paint, double x, double y, double width, double height) {
@@ -323,7 +336,7 @@ public abstract class GamePane extends StackPane {
                 fill(bg, sx + border, sy + border, sw - border, sh - border);
 
                 if (box.item() != null) {
-                    drawImage(sprites().get(box.item().sprite().name()),
+                    drawSprite(sprites().get(box.item().sprite().symbol()),
                         sx + border, sy + border);
                 }
 
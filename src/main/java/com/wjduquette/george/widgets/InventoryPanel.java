@@ -127,7 +127,7 @@ public class InventoryPanel extends GamePane implements Panel {
 
     // Draws the player character buttons in a column, starting at (x,y)
     private void drawPCBox(double x, double y) {
-        drawFramedSprites(toImage(player), null, x, y, 1);
+        drawFramedSprites(toSprite(player), null, x, y, 1);
         var box = new BoundingBox(x, y,
             sprites().width() + 4, sprites().height() + 4);
         target(box, () -> onClickPlayerCharacter(player));
@@ -194,7 +194,7 @@ public class InventoryPanel extends GamePane implements Panel {
             fill(Color.WHITE, bounds);
             fill(bg, x + 2, y + 2, sprites().width(), sprites().height());
 
-            drawImage(sprites().get(sprite), x + 2, y + 2);
+            drawSprite(sprites().get(sprite), x + 2, y + 2);
 
             target(bounds, () -> onSelectSlot(box));
         }
@@ -0,0 +1,55 @@
+package com.wjduquette.george.widgets;
+
+import com.wjduquette.george.App;
+import javafx.geometry.VPos;
+import javafx.scene.Node;
+import javafx.scene.paint.Color;
+import javafx.scene.text.TextAlignment;
+
+/**
+ * LoadingPanel is displayed while the game waits for something to load,
+ * e.g., the region the party is travelling to.  It cannot be dismissed by
+ * the user; the application closes it when loading is complete.
+ */
+public class LoadingPanel extends GamePane implements Panel {
+    private String text;
+    private Runnable onClose = null;
+
+    public LoadingPanel(App app, String text) {
+        super(app);
+        this.text = text;
+    }
+
+    @Override public Node asNode() { return this; }
+    @Override public void setOnClose(Runnable func) { this.onClose = func; }
+
+    /**
+     * Sets the text to display, e.g., to report progress.
+     * @param text The text
+     */
+    public void setText(String text) {
+        this.text = text;
+        repaint();
+    }
+
+    /**
+     * Closes the panel.
+     */
+    public void close() {
+        if (onClose != null) {
+            onClose.run();
+        }
+    }
+
+    protected void onRepaint() {
+        // Dim the map, and say what we're waiting for.
+        fill(Color.color(0, 0, 0, 0.6), 0, 0, getWidth(), getHeight());
+
+        gc().setTextAlign(TextAlignment.CENTER);
+        gc().setTextBaseline(VPos.CENTER);
+        gc().setFill(Color.WHITE);
+        gc().setFont(TITLE_FONT);
+        gc().fillText(text, getWidth()/2, getHeight()/2);
+        gc().setTextAlign(TextAlignment.LEFT);
+    }
+}
@@ -2,14 +2,14 @@ package com.wjduquette.george.widgets;
 
 import com.wjduquette.george.App;
 import com.wjduquette.george.ecs.Player;
-import com.wjduquette.george.model.Cell;
 import javafx.geometry.Insets;
 import javafx.scene.Node;
 import javafx.scene.input.MouseEvent;
 import javafx.scene.paint.Color;
 
 /**
- * MapPanel displays the known portions of the current region's map.
+ * MapPanel displays the known portions of the current region's map, as
+ * maintained by the region's {@link com.wjduquette.george.graphics.Minimap}.
  */
 public class MapPanel extends GamePane implements Panel {
     private final static double INSET = 50;
@@ -51,27 +51,10 @@ public class MapPanel extends GamePane implements Panel {
             xLeft - FRAME, yTop - FRAME,
             mapWidth + 2*FRAME, mapHeight + 2*FRAME);
 
-        for (int r = 0; r < region.getHeight(); r++) {
-            for (int c = 0; c < region.getWidth(); c++) {
-                var cell = new Cell(r,c);
-                var x = xLeft + c * cellSize;
-                var y = yTop + r * cellSize;
-
-                Color color = Color.WHITE;
-
-                if (region.isSeen(r, c)) {
-                    color = switch (region.getTerrainType(cell)) {
-                        case NONE -> Color.BLACK;
-                        case UNKNOWN -> Color.BLACK;
-                        case WATER -> Color.BLUE;
-                        case FLOOR -> Color.SANDYBROWN;
-                        default -> Color.color(0.2, 0.2, 0.2);
-                    };
-                }
-
-                fill(color, x, y, cellSize, cellSize);
-            }
-        }
+        // NEXT, draw the map, one pixel per cell, scaled up.
+        gc().setImageSmoothing(false);
+        gc().drawImage(region.minimap().image(), xLeft, yTop, mapWidth, mapHeight);
+        gc().setImageSmoothing(true);
 
         // NEXT, draw the player/leader a little bigger than its cell.
         var player = region.query(Player.class).findFirst().orElseThrow();
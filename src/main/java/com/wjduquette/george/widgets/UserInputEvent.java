@@ -3,10 +3,15 @@ package com.wjduquette.george.widgets;
 import javafx.event.Event;
 import javafx.event.EventType;
 
+import java.io.Serial;
+
 /**
  * The user clicked on a map cell; notify listeners.
  */
 public class UserInputEvent extends Event {
+    @Serial
+    private static final long serialVersionUID = 1L;
+
     public static final EventType<UserInputEvent> USER_INPUT =
         new EventType<>("USER_INPUT");
 